@@ -0,0 +1,78 @@
+/*
+ * Minty (Minty.jmh): AccountFootprintBenchmark.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.benchmark;
+
+import dev.vayen.mc.economy.bank.AccountStore;
+import dev.vayen.mc.economy.bank.BankCustomer;
+import dev.vayen.mc.manager.IbanIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.ref.Reference;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Reports heapBytesPerAccount: the used-heap delta across forced collections while ACCOUNTS accounts are held.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-XX:+UseSerialGC"})
+public class AccountFootprintBenchmark {
+    private static final int ACCOUNTS = 1_000_000;
+
+    @Param({"plain", "compact", "compact-offheap"})
+    public String layout;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long heapBytesPerAccount;
+    }
+
+    @Benchmark
+    public void retain(Footprint footprint) {
+        var bankUUID = UUID.randomUUID();
+        var store = layout.equals("plain") ? null : new AccountStore(layout.equals("compact-offheap"));
+        var before = usedHeap();
+        var accounts = new BankCustomer[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            var playerUUID = UUID.randomUUID();
+            var bank = new UUID(bankUUID.getMostSignificantBits(), bankUUID.getLeastSignificantBits());
+            accounts[i] = store == null
+                    ? BankCustomer.of(playerUUID, bank, IbanIndex.iban(IbanIndex.key(bank, playerUUID)), i)
+                    : store.create(playerUUID, bank, i);
+        }
+        footprint.heapBytesPerAccount = (usedHeap() - before) / ACCOUNTS;
+        Reference.reachabilityFence(accounts);
+        Reference.reachabilityFence(store);
+    }
+
+    private static long usedHeap() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Minty (Minty.jmh): BankLoadBenchmark.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+
+package dev.vayen.mc.benchmark;
+
+import dev.vayen.mc.economy.bank.Bank;
+import dev.vayen.mc.manager.BankManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BankLoadBenchmark {
+    @Param({"1000", "100000"})
+    public int customers;
+
+    @Param({"LAZY", "FULL"})
+    public BankManager.LoadMode mode;
+
+    private BenchmarkFixture fixture;
+    private UUID bankUUID;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = new BenchmarkFixture();
+        var bank = fixture.createBank(customers, 100);
+        bankUUID = bank.getUuid();
+        fixture.bankManager.unload(new BankManager.Params(bankUUID));
+    }
+
+    @TearDown(Level.Invocation)
+    public void unload() throws Exception {
+        fixture.bankManager.unload(new BankManager.Params(bankUUID));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Bank loadFromFile() throws IOException {
+        return fixture.bankManager.loadFromFile(new BankManager.Params(bankUUID, mode)).orElseThrow();
+    }
+}
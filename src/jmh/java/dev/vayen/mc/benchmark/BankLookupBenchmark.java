@@ -0,0 +1,65 @@
+/*
+ * Minty (Minty.jmh): BankLookupBenchmark.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+
+package dev.vayen.mc.benchmark;
+
+import dev.vayen.mc.economy.bank.Bank;
+import dev.vayen.mc.economy.bank.BankCustomer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BankLookupBenchmark {
+    @Param({"1000", "100000"})
+    public int customers;
+
+    private BenchmarkFixture fixture;
+    private Bank bank;
+    private UUID[] playerUUIDs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = new BenchmarkFixture();
+        bank = fixture.createBank(customers, 0);
+        playerUUIDs = bank.getCustomers().keys().toArray(UUID[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Optional<BankCustomer> getCustomer() {
+        return bank.getCustomer(playerUUIDs[ThreadLocalRandom.current().nextInt(playerUUIDs.length)]);
+    }
+
+    @Benchmark
+    public Optional<BankCustomer> getCustomerByUUID() {
+        return fixture.bankManager.getCustomerByUUID(playerUUIDs[ThreadLocalRandom.current().nextInt(playerUUIDs.length)]);
+    }
+}
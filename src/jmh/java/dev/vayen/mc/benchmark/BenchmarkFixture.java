@@ -0,0 +1,85 @@
+/*
+ * Minty (Minty.jmh): BenchmarkFixture.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+
+package dev.vayen.mc.benchmark;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.vayen.mc.economy.Economy;
+import dev.vayen.mc.economy.bank.Bank;
+import dev.vayen.mc.economy.bank.BankCustomer;
+import dev.vayen.mc.economy.bank.BankLoan;
+import dev.vayen.mc.economy.bank.LazyRecords;
+import dev.vayen.mc.manager.BankManager;
+import dev.vayen.mc.manager.TransactionJournal;
+import dev.vayen.mc.manager.storage.FileStorageEngine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+public final class BenchmarkFixture implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger("Minty-Benchmark");
+
+    public final Path dataFolder;
+    public final TransactionJournal journal;
+    public final BankManager bankManager;
+
+    public BenchmarkFixture() throws IOException {
+        dataFolder = Files.createTempDirectory("minty-jmh");
+        journal = new TransactionJournal(dataFolder.resolve("journal"), LOGGER);
+        bankManager = new BankManager(
+                dataFolder,
+                LOGGER,
+                FileStorageEngine.open(dataFolder.resolve("banks")),
+                Long.MAX_VALUE,
+                Caffeine.newBuilder().maximumSize(1_000_000).build(),
+                journal
+        );
+        Economy.bind(bankManager);
+    }
+
+    public Bank createBank(int customers, long startingBalance) throws IOException {
+        var bank = new Bank(UUID.randomUUID(), "Benchmark", new LazyRecords<>(BankCustomer::getPlayerUUID),
+                new LazyRecords<>(BankLoan::getUuid).withGroupIndex(BankLoan::getCustomerUUID), Long.MAX_VALUE / 4);
+        bank.markDirty();
+        bankManager.getCache().put(bank.getUuid(), bank);
+
+        for (int i = 0; i < customers; i++) bankManager.createCustomer(bank, UUID.randomUUID());
+        for (var customer : bank.getCustomers().loaded()) customer.setBalance(startingBalance);
+        return bank;
+    }
+
+    public static List<String> ibans(Bank bank) {
+        var ibans = new ArrayList<String>(bank.getCustomers().size());
+        for (var customer : bank.getCustomers().loaded()) ibans.add(customer.getIban());
+        return ibans;
+    }
+
+    @Override
+    public void close() throws IOException {
+        bankManager.close();
+        try (var files = Files.walk(dataFolder)) {
+            for (var path : files.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(path);
+        }
+    }
+}
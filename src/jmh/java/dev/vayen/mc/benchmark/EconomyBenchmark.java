@@ -0,0 +1,95 @@
+/*
+ * Minty (Minty.jmh): EconomyBenchmark.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+
+package dev.vayen.mc.benchmark;
+
+import dev.vayen.mc.economy.Economy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EconomyBenchmark {
+    private BenchmarkFixture fixture;
+    private List<String> ibans;
+    private String shopIban;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = new BenchmarkFixture();
+        ibans = BenchmarkFixture.ibans(fixture.createBank(10_000, 1_000_000_000L));
+        shopIban = ibans.getFirst();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fixture.close();
+    }
+
+    private void payRandom() throws Exception {
+        var random = ThreadLocalRandom.current();
+        Economy.pay(ibans.get(random.nextInt(ibans.size())), ibans.get(random.nextInt(ibans.size())), 1);
+    }
+
+    private void payShop() throws Exception {
+        Economy.pay(ibans.get(ThreadLocalRandom.current().nextInt(ibans.size())), shopIban, 1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void payRandom1() throws Exception {
+        payRandom();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void payRandom8() throws Exception {
+        payRandom();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void payRandom64() throws Exception {
+        payRandom();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void payShop1() throws Exception {
+        payShop();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void payShop8() throws Exception {
+        payShop();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void payShop64() throws Exception {
+        payShop();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Minty (Minty.jmh): StorageEngineBenchmark.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.benchmark;
+
+import dev.vayen.mc.manager.storage.RecordKind;
+import dev.vayen.mc.manager.storage.RecordStore;
+import dev.vayen.mc.manager.storage.StorageEngine;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StorageEngineBenchmark {
+    private static final int RECORDS = 100_000;
+    private static final int BATCH = 1_000;
+    private static final int PAYLOAD = 96;
+
+    @Param({"file", "mvstore"})
+    public String engine;
+
+    private Path root;
+    private StorageEngine storage;
+    private RecordStore records;
+    private UUID[] keys;
+    private Map<UUID, byte[]> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("minty-jmh-storage");
+        storage = StorageEngine.open(engine, root);
+        records = storage.records(UUID.randomUUID(), RecordKind.CUSTOMERS);
+
+        keys = new UUID[RECORDS];
+        var initial = new HashMap<UUID, byte[]>();
+        for (int i = 0; i < RECORDS; i++) {
+            keys[i] = UUID.randomUUID();
+            initial.put(keys[i], new byte[PAYLOAD]);
+        }
+        records.putAll(initial);
+
+        batch = new HashMap<>();
+        for (int i = 0; i < BATCH; i++) batch.put(keys[i * (RECORDS / BATCH)], new byte[PAYLOAD]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        storage.close();
+        try (var files = Files.walk(root)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public void putAllBatch() throws IOException {
+        records.putAll(batch);
+        records.maintain();
+    }
+
+    @Benchmark
+    public Integer read() throws IOException {
+        return records.read(keys[ThreadLocalRandom.current().nextInt(RECORDS)], buffer -> buffer.remaining());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void scan(Blackhole blackhole) throws IOException {
+        UUID after = null;
+        do {
+            after = records.scan(after, BATCH, (key, buffer) -> blackhole.consume(buffer.remaining()));
+        } while (after != null);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Minty (Minty.jmh): VariableParserBenchmark.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+
+package dev.vayen.mc.benchmark;
+
+import dev.vayen.mc.MessageTemplate;
+import dev.vayen.mc.VariableParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VariableParserBenchmark {
+    private static final String TEMPLATE = "<green>{bank.name}</green> " + "<dark_gray>»<reset>" + " {bank.customers.size} customers, {bank.loans.size} loans ({bank.uuid})";
+
+    private static final UUID BANK_UUID = UUID.randomUUID();
+
+    private final Map<String, Supplier<?>> variables = Map.of(
+            "bank.uuid", () -> BANK_UUID,
+            "bank.name", () -> "Vayen Bank",
+            "bank.customers.size", () -> 50_000,
+            "bank.loans.size", () -> 1_200
+    );
+    private final MessageTemplate compiled = MessageTemplate.compile(TEMPLATE);
+
+    @Benchmark
+    public String parse() {
+        return VariableParser.parse(variables, TEMPLATE);
+    }
+
+    @Benchmark
+    public String renderCompiled() {
+        return compiled.render(variables);
+    }
+}
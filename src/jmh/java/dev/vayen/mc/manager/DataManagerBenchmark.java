@@ -0,0 +1,73 @@
+/*
+ * Minty (Minty.jmh): DataManagerBenchmark.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+
+package dev.vayen.mc.manager;
+
+import dev.vayen.mc.Minty;
+import dev.vayen.mc.benchmark.BenchmarkFixture;
+import dev.vayen.mc.economy.bank.BankCustomer;
+import org.bson.codecs.Codec;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Lives in the manager package to reach DataManager's protected encode, decode and save.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataManagerBenchmark {
+    private final Codec<BankCustomer> codec = Minty.CODEC_REGISTRY.get(BankCustomer.class);
+    private BenchmarkFixture fixture;
+    private BankCustomer customer;
+    private Path path;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = new BenchmarkFixture();
+        customer = BankCustomer.of(UUID.randomUUID(), UUID.randomUUID(), "MC0000000100000001", 123_456);
+        path = fixture.dataFolder.resolve("customer.bson");
+        encoded = fixture.bankManager.encode(codec, customer);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fixture.close();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return fixture.bankManager.encode(codec, customer);
+    }
+
+    @Benchmark
+    public BankCustomer decode() {
+        return fixture.bankManager.decode(codec, ByteBuffer.wrap(encoded));
+    }
+
+    @Benchmark
+    public int save() throws Exception {
+        return fixture.bankManager.save(path, codec, customer);
+    }
+}
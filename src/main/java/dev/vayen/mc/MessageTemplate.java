@@ -0,0 +1,98 @@
+/*
+ * Minty (Minty.main): MessageTemplate.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public final class MessageTemplate {
+    private static final Cache<String, MessageTemplate> CACHE = Caffeine.newBuilder().maximumSize(1024).build();
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    private static final int MAX_RETAINED_CAPACITY = 8192;
+
+    private final String source;
+    private final String[] literals;
+    private final String[] keys;
+
+    private MessageTemplate(String source, String[] literals, String[] keys) {
+        this.source = source;
+        this.literals = literals;
+        this.keys = keys;
+    }
+
+    public static MessageTemplate compile(@NotNull String template) {
+        return CACHE.get(template, MessageTemplate::parse);
+    }
+
+    private static MessageTemplate parse(String template) {
+        var literals = new ArrayList<String>();
+        var keys = new ArrayList<String>();
+        int literalStart = 0;
+        int open = template.indexOf('{');
+        while (open != -1) {
+            int close = template.indexOf('}', open + 1);
+            if (close == -1) break;
+
+            int nested = template.lastIndexOf('{', close - 1);
+            if (nested > open) open = nested;
+            if (close > open + 1) {
+                literals.add(template.substring(literalStart, open));
+                keys.add(template.substring(open + 1, close));
+                literalStart = close + 1;
+            }
+            open = template.indexOf('{', close + 1);
+        }
+        literals.add(template.substring(literalStart));
+        return new MessageTemplate(template, literals.toArray(String[]::new), keys.toArray(String[]::new));
+    }
+
+    public String render(@NotNull Map<String, ? extends Supplier<?>> variables) {
+        if (keys.length == 0) return source;
+
+        var shared = BUILDER.get();
+        // A supplier may itself render a template; only reuse the shared builder when it is not mid-render.
+        var builder = shared.isEmpty() ? shared : new StringBuilder(source.length() + 16 * keys.length);
+        try {
+            builder.append(literals[0]);
+            for (int i = 0; i < keys.length; i++) {
+                var supplier = variables.get(keys[i]);
+                if (supplier == null) builder.append('{').append(keys[i]).append('}');
+                else builder.append(supplier.get());
+                builder.append(literals[i + 1]);
+            }
+            return builder.toString();
+        } finally {
+            builder.setLength(0);
+            if (builder == shared && shared.capacity() > MAX_RETAINED_CAPACITY) BUILDER.remove();
+        }
+    }
+
+    public boolean isStatic() {
+        return keys.length == 0;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
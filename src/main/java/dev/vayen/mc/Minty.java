@@ -18,69 +18,188 @@
 package dev.vayen.mc;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import de.exlll.configlib.YamlConfigurations;
+import dev.vayen.mc.command.MintyCommand;
+import dev.vayen.mc.config.MintyConfig;
+import dev.vayen.mc.economy.Economy;
+import dev.vayen.mc.economy.bank.AccountStore;
 import dev.vayen.mc.economy.bank.Bank;
+import dev.vayen.mc.economy.bank.BankCodec;
+import dev.vayen.mc.economy.bank.BankCustomerCodec;
+import dev.vayen.mc.economy.bank.BankLoanCodec;
+import dev.vayen.mc.economy.loan.LoanEngine;
+import dev.vayen.mc.economy.vault.VaultEconomy;
 import dev.vayen.mc.manager.BankManager;
+import dev.vayen.mc.manager.DataManager;
+import dev.vayen.mc.manager.LeaderboardManager;
+import dev.vayen.mc.manager.SnapshotManager;
+import dev.vayen.mc.manager.TransactionJournal;
+import dev.vayen.mc.manager.TransactionLedger;
+import dev.vayen.mc.manager.storage.StorageEngine;
 import dev.vayen.mc.menu.MenuListener;
+import dev.vayen.mc.metrics.Metrics;
 import lombok.Getter;
 import lombok.SneakyThrows;
 import org.bson.codecs.configuration.CodecRegistries;
 import org.bson.codecs.configuration.CodecRegistry;
-import org.bson.codecs.pojo.PojoCodecProvider;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 public final class Minty extends JavaPlugin {
     public static final String GRAY_ARROW = "<dark_gray>»<reset>";
-    public static final CodecRegistry POJO_CODEC_REGISTRY = CodecRegistries.fromRegistries(CodecRegistries.fromProviders(PojoCodecProvider.builder().automatic(true).build()));
+    public static final CodecRegistry CODEC_REGISTRY = CodecRegistries.fromCodecs(new BankCodec(), new BankCustomerCodec(), new BankLoanCodec());
     @Getter
     private static Minty instance;
     public final Logger LOGGER = getLogger();
     public final PluginManager PLUGIN_MANAGER = getServer().getPluginManager();
 
+    @Getter
+    private MintyConfig mintyConfig;
     @Getter
     private BankManager bankManager;
+    @Getter
+    private SnapshotManager snapshotManager;
+    @Getter
+    private LeaderboardManager leaderboardManager;
 
+    @SneakyThrows
     @Override
     public void onLoad() {
         instance = this;
 
         if (!getDataFolder().exists()) getDataFolder().mkdirs();
+        mintyConfig = YamlConfigurations.update(getDataPath().resolve("config.yml"), MintyConfig.class);
+        SnapshotManager.restorePending(getDataPath(), mintyConfig.getStorageEngine(), LOGGER);
 
         bankManager = new BankManager(
-                Caffeine.newBuilder().maximumSize(10).build(), // 10 Banks loaded on the server with all customers and loans.
-                Caffeine.newBuilder().maximumSize(getServer().getMaxPlayers() * 10L).build()
+                getDataPath(),
+                LOGGER,
+                StorageEngine.open(mintyConfig.getStorageEngine(), getDataPath().resolve("banks")),
+                mintyConfig.getBankCacheWeight(),
+                Caffeine.newBuilder().maximumSize(getServer().getMaxPlayers() * 10L).recordStats().build(),
+                new TransactionJournal(getDataPath().resolve("journal"), LOGGER)
         );
+        bankManager.setLedgerSettings(new TransactionLedger.Settings(mintyConfig.getLedgerSegmentRecords(), Duration.ofDays(mintyConfig.getLedgerRetentionDays())));
+        if (mintyConfig.isCompactAccounts()) bankManager.setAccountStore(new AccountStore(mintyConfig.isCompactAccountsOffHeap()));
+        if (!mintyConfig.getVaultPrimaryBank().isBlank())
+            bankManager.getPrimaryAccounts().setPrimaryBank(UUID.fromString(mintyConfig.getVaultPrimaryBank().trim()));
+        snapshotManager = new SnapshotManager(getDataPath().resolve("snapshots"), bankManager, LOGGER, mintyConfig.getSnapshotFullRetention());
+        leaderboardManager = new LeaderboardManager(getDataPath().resolve("leaderboards.dat"), bankManager, LOGGER, mintyConfig.getLeaderboardSize());
+        Economy.bind(bankManager);
+        Metrics.registerCache("banks", bankManager.getCache());
+        Metrics.registerCache("ibans", bankManager.getIbanToCustomerCache());
 
         LOGGER.info("Minty is loading!");
     }
 
+    @SneakyThrows
     @Override
     public void onEnable() {
-        PLUGIN_MANAGER.registerEvents(new MenuListener(), this);
+        bankManager.migrateLegacyLayout();
+        bankManager.rebuildIbanIndexIfNeeded();
+        bankManager.replayJournal();
+        Economy.startAsync();
+        var menuListener = new MenuListener();
+        PLUGIN_MANAGER.registerEvents(menuListener, this);
+        Bukkit.getScheduler().runTaskTimer(this, menuListener::refreshOpenMenus, 10, 10);
+        var mintyCommand = new MintyCommand();
+        var command = getCommand("minty");
+        if (command != null) {
+            command.setExecutor(mintyCommand);
+            command.setTabCompleter(mintyCommand);
+        }
+        Metrics.registerJmx(LOGGER);
+        if (PLUGIN_MANAGER.getPlugin("Vault") != null) {
+            VaultEconomy.register(this, bankManager, mintyConfig.getVaultCurrencySingular(), mintyConfig.getVaultCurrencyPlural());
+            LOGGER.info("Registered Minty as the Vault economy");
+        }
         LOGGER.info("Minty is enabled!");
 
         Bukkit.getAsyncScheduler().runAtFixedRate(this, scheduledTask -> {
+            try {
+                bankManager.checkpoint();
+            } catch (IOException e) {
+                LOGGER.warning("Failed to checkpoint the transaction journal: " + e.getMessage());
+            }
+            try {
+                leaderboardManager.maintain();
+            } catch (IOException e) {
+                LOGGER.warning("Failed to save the leaderboards: " + e.getMessage());
+            }
+        }, mintyConfig.getCheckpointIntervalSeconds(), mintyConfig.getCheckpointIntervalSeconds(), TimeUnit.SECONDS);
+
+        Bukkit.getAsyncScheduler().runNow(this, scheduledTask -> {
+            try {
+                leaderboardManager.rebuildMissing();
+            } catch (IOException e) {
+                LOGGER.warning("Failed to build the leaderboards: " + e.getMessage());
+            }
+        });
+
+        var loanEngine = new LoanEngine(bankManager, LOGGER, Clock.systemDefaultZone());
+        Bukkit.getAsyncScheduler().runAtFixedRate(this, scheduledTask -> loanEngine.tick(), 250, 250, TimeUnit.MILLISECONDS);
+
+        Bukkit.getAsyncScheduler().runAtFixedRate(this, scheduledTask -> {
+            var start = Metrics.AUTOSAVE.start();
+            var result = DataManager.FlushResult.EMPTY;
             for (var bank : bankManager.getCache().asMap().values()) {
                 try {
-                    bankManager.save(bank);
+                    result = result.plus(bankManager.save(bank));
                 } catch (IOException e) {
                     LOGGER.warning("Failed to save bank " + bank.getName() + " (" + bank.getUuid() + ")!");
                 }
             }
-        }, 0, 5, TimeUnit.MINUTES);
+            Metrics.AUTOSAVE.stop(start);
+            Metrics.AUTOSAVE_RECORDS.add(result.records());
+            Metrics.AUTOSAVE_BYTES.add(result.bytes());
+            if (result.records() > 0)
+                LOGGER.info(String.format("Autosaved %d changed records (%d bytes)", result.records(), result.bytes()));
+        }, mintyConfig.getAutosaveIntervalMinutes(), mintyConfig.getAutosaveIntervalMinutes(), TimeUnit.MINUTES);
+
+        if (mintyConfig.getSnapshotIntervalMinutes() > 0) {
+            Bukkit.getAsyncScheduler().runAtFixedRate(this, scheduledTask -> {
+                try {
+                    var info = snapshotManager.snapshot(false);
+                    LOGGER.info(String.format("Took %s snapshot %d (%d records, %d bytes) in %d ms", info.full() ? "full" : "incremental",
+                            info.id(), info.records(), info.bytes(), info.elapsed().toMillis()));
+                } catch (IOException e) {
+                    LOGGER.warning("Failed to take a snapshot: " + e.getMessage());
+                }
+            }, mintyConfig.getSnapshotIntervalMinutes(), mintyConfig.getSnapshotIntervalMinutes(), TimeUnit.MINUTES);
+        }
     }
 
     @SneakyThrows
     @Override
     public void onDisable() {
-        for (Bank bank : bankManager.getCache().asMap().values()) {
+        Economy.stopAsync(10, TimeUnit.SECONDS);
+
+        var parallelism = mintyConfig.getShutdownFlushParallelism() > 0 ? mintyConfig.getShutdownFlushParallelism() : Runtime.getRuntime().availableProcessors();
+        var report = bankManager.flushAll(Duration.ofSeconds(mintyConfig.getShutdownFlushTimeoutSeconds()), parallelism);
+        LOGGER.info(String.format("Flushed %d/%d banks (%d records, %d bytes) in %d ms", report.flushed().size(), report.banks(),
+                report.result().records(), report.result().bytes(), report.elapsed().toMillis()));
+
+        if (report.isComplete()) {
+            bankManager.checkpoint();
+        } else {
+            var names = report.unflushed().stream().map(bank -> bank.getName() + " (" + bank.getUuid() + ")").toList();
+            LOGGER.warning(String.format("%d banks were not flushed before the deadline: %s. Their balances stay in the transaction journal and are replayed on the next start.",
+                    names.size(), String.join(", ", names)));
+        }
+        for (Bank bank : report.flushed()) {
             bankManager.unload(new BankManager.Params(bank.getUuid()));
         }
+        leaderboardManager.save();
+        bankManager.close();
+        Metrics.unregisterJmx();
 
         LOGGER.info("Minty is disabled!");
     }
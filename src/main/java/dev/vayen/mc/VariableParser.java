@@ -20,17 +20,12 @@ package dev.vayen.mc;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Map;
+import java.util.function.Supplier;
 
 public class VariableParser {
-    public static String parse(@NotNull Map<String, Object> variables, @NotNull String input) {
+    public static String parse(@NotNull Map<String, ? extends Supplier<?>> variables, @NotNull String input) {
         if (variables.isEmpty()) return input;
 
-        String result = input;
-
-        for (var entry : variables.entrySet()) {
-            result = result.replace("{" + entry.getKey() + "}", entry.getValue().toString());
-        }
-
-        return result;
+        return MessageTemplate.compile(input).render(variables);
     }
 }
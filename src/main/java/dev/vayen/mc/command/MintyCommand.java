@@ -0,0 +1,336 @@
+/*
+ * Minty (Minty.main): MintyCommand.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.command;
+
+import dev.vayen.mc.Minty;
+import dev.vayen.mc.economy.Economy;
+import dev.vayen.mc.economy.bank.Bank;
+import dev.vayen.mc.manager.BankExporter;
+import dev.vayen.mc.manager.BankManager;
+import dev.vayen.mc.manager.EssentialsImporter;
+import dev.vayen.mc.menu.BankCustomersMenu;
+import dev.vayen.mc.menu.BankLoansMenu;
+import dev.vayen.mc.menu.LeaderboardMenu;
+import dev.vayen.mc.menu.Menu;
+import dev.vayen.mc.metrics.Metrics;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+public class MintyCommand implements CommandExecutor, TabCompleter {
+    private static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
+    private static final int DEFAULT_HISTORY = 10;
+    private static final int MAX_HISTORY = 100;
+    private static final int DEFAULT_BALTOP = 10;
+    private static final DateTimeFormatter HISTORY_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter EXPORT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneId.systemDefault());
+    private static final List<String> SUBCOMMANDS = List.of("metrics", "customers", "loans", "history", "snapshot", "restore", "baltop", "import", "export");
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if (args.length == 0 || !SUBCOMMANDS.contains(args[0].toLowerCase())) {
+            send(sender, "<gray>Usage: <white>/" + label + " <metrics|customers|loans|history|snapshot|restore|baltop|import|export> [bank uuid|iban|full|list|snapshot id|jsonl|csv]");
+            return true;
+        }
+
+        switch (args[0].toLowerCase()) {
+            case "metrics" -> {
+                if (!sender.hasPermission("minty.metrics")) {
+                    send(sender, "<red>You do not have permission to view metrics.");
+                    return true;
+                }
+                metrics(sender);
+            }
+            case "customers" -> browse(sender, label, args, BankCustomersMenu::new);
+            case "loans" -> browse(sender, label, args, BankLoansMenu::new);
+            case "history" -> history(sender, label, args);
+            case "snapshot" -> snapshot(sender, args);
+            case "restore" -> restore(sender, label, args);
+            case "baltop" -> baltop(sender, args);
+            case "import" -> importAccounts(sender, label, args);
+            case "export" -> export(sender, label, args);
+        }
+        return true;
+    }
+
+    private void browse(CommandSender sender, String label, String[] args, Function<Bank, Menu> menu) {
+        if (!(sender instanceof Player player)) {
+            send(sender, "<red>Only players can open bank menus.");
+            return;
+        }
+        if (!sender.hasPermission("minty.admin")) {
+            send(sender, "<red>You do not have permission to browse banks.");
+            return;
+        }
+        if (args.length < 2) {
+            send(sender, "<gray>Usage: <white>/" + label + " " + args[0].toLowerCase() + " <bank uuid>");
+            return;
+        }
+
+        UUID bankUUID;
+        try {
+            bankUUID = UUID.fromString(args[1]);
+        } catch (IllegalArgumentException e) {
+            send(sender, "<red>That is not a valid bank UUID.");
+            return;
+        }
+
+        var plugin = Minty.getInstance();
+        plugin.getBankManager().getAsync(new BankManager.Params(bankUUID)).thenAcceptAsync(bank -> {
+            if (bank.isEmpty()) send(player, "<red>No bank exists with that UUID.");
+            else if (player.isOnline()) menu.apply(bank.get()).open(player);
+        }, Economy.mainThread());
+    }
+
+    private void history(CommandSender sender, String label, String[] args) {
+        if (!sender.hasPermission("minty.admin")) {
+            send(sender, "<red>You do not have permission to view transaction history.");
+            return;
+        }
+        if (args.length < 2) {
+            send(sender, "<gray>Usage: <white>/" + label + " history <iban> [count]");
+            return;
+        }
+
+        int count;
+        try {
+            count = args.length > 2 ? Math.clamp(Integer.parseInt(args[2]), 1, MAX_HISTORY) : DEFAULT_HISTORY;
+        } catch (NumberFormatException e) {
+            send(sender, "<red>The count must be a number.");
+            return;
+        }
+
+        var iban = args[1].toUpperCase();
+        Bukkit.getAsyncScheduler().runNow(Minty.getInstance(), task -> {
+            try {
+                var entries = Minty.getInstance().getBankManager().history(iban, count);
+                if (entries.isEmpty()) {
+                    send(sender, "<gray>No transactions recorded for <white>" + iban + "<gray>.");
+                    return;
+                }
+
+                send(sender, "<green>Last " + entries.size() + " transactions of <white>" + iban);
+                for (var entry : entries) {
+                    send(sender, String.format("%s <gray>%s <white>%s <gray>%+d <dark_gray>→ <white>%d%s", Minty.GRAY_ARROW,
+                            HISTORY_TIME.format(entry.time()), entry.type(), entry.delta(), entry.balanceAfter(),
+                            entry.counterparty() == null ? "" : " <gray>(" + entry.counterparty() + ")"));
+                }
+            } catch (IOException e) {
+                send(sender, "<red>Failed to read the transaction history.");
+            }
+        });
+    }
+
+    private void snapshot(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("minty.admin")) {
+            send(sender, "<red>You do not have permission to manage snapshots.");
+            return;
+        }
+
+        var snapshots = Minty.getInstance().getSnapshotManager();
+        var mode = args.length > 1 ? args[1].toLowerCase() : "";
+        Bukkit.getAsyncScheduler().runNow(Minty.getInstance(), task -> {
+            try {
+                if (mode.equals("list")) {
+                    var headers = snapshots.list();
+                    if (headers.isEmpty()) send(sender, "<gray>No snapshots have been taken yet.");
+                    for (var header : headers) {
+                        send(sender, String.format("%s <white>%d <gray>%s <white>%s", Minty.GRAY_ARROW, header.id(),
+                                HISTORY_TIME.format(header.created()), header.full() ? "full" : "incremental"));
+                    }
+                    return;
+                }
+
+                var info = snapshots.snapshot(mode.equals("full"));
+                send(sender, String.format("<green>Took %s snapshot <white>%d <green>(%d records, %d bytes) in %d ms.",
+                        info.full() ? "full" : "incremental", info.id(), info.records(), info.bytes(), info.elapsed().toMillis()));
+            } catch (IOException e) {
+                send(sender, "<red>Failed to take a snapshot: " + e.getMessage());
+            }
+        });
+    }
+
+    private void restore(CommandSender sender, String label, String[] args) {
+        if (!sender.hasPermission("minty.admin")) {
+            send(sender, "<red>You do not have permission to restore snapshots.");
+            return;
+        }
+        if (args.length < 2) {
+            send(sender, "<gray>Usage: <white>/" + label + " restore <snapshot id>");
+            return;
+        }
+
+        long id;
+        try {
+            id = Long.parseLong(args[1]);
+        } catch (NumberFormatException e) {
+            send(sender, "<red>The snapshot id must be a number.");
+            return;
+        }
+
+        Bukkit.getAsyncScheduler().runNow(Minty.getInstance(), task -> {
+            try {
+                Minty.getInstance().getSnapshotManager().requestRestore(id);
+                send(sender, "<green>Snapshot <white>" + id + " <green>will be restored on the next server start.");
+            } catch (IOException e) {
+                send(sender, "<red>Cannot restore that snapshot: " + e.getMessage());
+            }
+        });
+    }
+
+    private void importAccounts(CommandSender sender, String label, String[] args) {
+        if (!sender.hasPermission("minty.admin")) {
+            send(sender, "<red>You do not have permission to import accounts.");
+            return;
+        }
+        if (args.length < 3 || !args[1].equalsIgnoreCase("essentials")) {
+            send(sender, "<gray>Usage: <white>/" + label + " import essentials <bank uuid> [dry-run]");
+            return;
+        }
+
+        UUID bankUUID;
+        try {
+            bankUUID = UUID.fromString(args[2]);
+        } catch (IllegalArgumentException e) {
+            send(sender, "<red>That is not a valid bank UUID.");
+            return;
+        }
+
+        var dryRun = args.length > 3 && args[3].equalsIgnoreCase("dry-run");
+        var plugin = Minty.getInstance();
+        var folder = plugin.getDataPath().resolveSibling("Essentials").resolve("userdata");
+        Bukkit.getAsyncScheduler().runNow(plugin, task -> {
+            try {
+                var importer = new EssentialsImporter(plugin.getBankManager(), plugin.getLeaderboardManager(), plugin.LOGGER);
+                var report = importer.run(folder, bankUUID, dryRun, Runtime.getRuntime().availableProcessors(), progress ->
+                        send(sender, String.format("<gray>Importing: <white>%d <gray>files read, <white>%d <gray>accounts%s", progress.scanned(), progress.imported(), dryRun ? " found" : " imported")));
+                send(sender, String.format("<green>%s <white>%d <green>accounts (%d total balance) from %d files in %d ms; %d skipped, %d failed.",
+                        dryRun ? "Would import" : "Imported", report.imported(), report.amount(), report.scanned(), report.elapsed().toMillis(), report.skipped(), report.failed()));
+                if (!dryRun && report.imported() > 0)
+                    send(sender, "<gray>Incremental snapshots do not include imported accounts; take a full one with <white>/" + label + " snapshot full<gray>.");
+            } catch (IOException e) {
+                send(sender, "<red>Import failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private void export(CommandSender sender, String label, String[] args) {
+        if (!sender.hasPermission("minty.admin")) {
+            send(sender, "<red>You do not have permission to export banks.");
+            return;
+        }
+
+        BankExporter.Format format;
+        try {
+            format = args.length > 1 ? BankExporter.Format.valueOf(args[1].toUpperCase()) : BankExporter.Format.JSONL;
+        } catch (IllegalArgumentException e) {
+            send(sender, "<gray>Usage: <white>/" + label + " export [jsonl|csv]");
+            return;
+        }
+
+        var plugin = Minty.getInstance();
+        var config = plugin.getMintyConfig();
+        var target = plugin.getDataPath().resolve("exports").resolve(String.format("minty-%s.%s.gz", EXPORT_TIME.format(Instant.now()), format.name().toLowerCase()));
+        Bukkit.getAsyncScheduler().runNow(plugin, task -> {
+            try {
+                Files.createDirectories(target.getParent());
+                var report = new BankExporter(plugin.getBankManager(), plugin.LOGGER).export(target, format, config.getExportParallelism(), config.getExportRecordsPerSecond(), progress ->
+                        send(sender, String.format("<gray>Exporting: <white>%d <gray>banks, <white>%d <gray>customers, <white>%d <gray>loans", progress.banks(), progress.customers(), progress.loans())));
+                send(sender, String.format("<green>Exported <white>%d <green>banks, <white>%d <green>customers and <white>%d <green>loans to <white>%s <green>in %d ms.",
+                        report.banks(), report.customers(), report.loans(), target.getFileName(), report.elapsed().toMillis()));
+            } catch (IOException e) {
+                send(sender, "<red>Export failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private void baltop(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("minty.baltop")) {
+            send(sender, "<red>You do not have permission to view the leaderboards.");
+            return;
+        }
+
+        UUID bankUUID = null;
+        if (args.length > 1) {
+            try {
+                bankUUID = UUID.fromString(args[1]);
+            } catch (IllegalArgumentException e) {
+                send(sender, "<red>That is not a valid bank UUID.");
+                return;
+            }
+        }
+
+        var leaderboards = Minty.getInstance().getLeaderboardManager();
+        var scope = bankUUID;
+        if (sender instanceof Player player) {
+            new LeaderboardMenu(scope == null ? "All banks" : scope.toString(), () -> leaderboards.top(scope, Integer.MAX_VALUE)).open(player);
+            return;
+        }
+
+        var top = leaderboards.top(scope, DEFAULT_BALTOP);
+        if (top.isEmpty()) send(sender, "<gray>No accounts are ranked yet.");
+        for (int i = 0; i < top.size(); i++) {
+            var entry = top.get(i);
+            send(sender, String.format("%s <gold>#%d <white>%s <gray>%s <white>%d", Minty.GRAY_ARROW, i + 1, entry.playerUUID(), entry.iban(), entry.balance()));
+        }
+    }
+
+    private void metrics(CommandSender sender) {
+        send(sender, "<green>Latency <dark_gray>(count, mean, p50, p99, max in ms)");
+        for (var histogram : Metrics.histograms()) {
+            if (histogram.getCount() == 0) continue;
+            send(sender, String.format("%s <gray>%s <white>%d <gray>| <white>%.3f <gray>| <white>%.3f <gray>| <white>%.3f <gray>| <white>%.3f",
+                    Minty.GRAY_ARROW, histogram.getName(), histogram.getCount(), histogram.getMeanMillis(), histogram.getP50Millis(), histogram.getP99Millis(), histogram.getMaxMillis()));
+        }
+
+        send(sender, "<green>Counters");
+        for (var counter : Metrics.counters()) {
+            send(sender, String.format("%s <gray>%s <white>%d", Minty.GRAY_ARROW, counter.getName(), counter.getValue()));
+        }
+
+        send(sender, "<green>Caches <dark_gray>(size, hits, misses, evictions, hit rate)");
+        for (var cache : Metrics.caches()) {
+            send(sender, String.format("%s <gray>%s <white>%d <gray>| <white>%d <gray>| <white>%d <gray>| <white>%d <gray>| <white>%.1f%%",
+                    Minty.GRAY_ARROW, cache.getName(), cache.getEstimatedSize(), cache.getHitCount(), cache.getMissCount(), cache.getEvictionCount(), cache.getHitRate() * 100));
+        }
+    }
+
+    private void send(CommandSender sender, String message) {
+        sender.sendMessage(MINI_MESSAGE.deserialize(message));
+    }
+
+    @Override
+    public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if (args.length != 1) return List.of();
+        return SUBCOMMANDS.stream().filter(subcommand -> subcommand.startsWith(args[0].toLowerCase())).toList();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Minty (Minty.main): MintyConfig.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.config;
+
+import de.exlll.configlib.Comment;
+import de.exlll.configlib.Configuration;
+import lombok.Getter;
+
+@Configuration
+@Getter
+public class MintyConfig {
+    @Comment("Customers and loans kept in memory across all loaded banks before the least used banks are saved and evicted.")
+    private long bankCacheWeight = 1_000_000;
+
+    @Comment({"Where bank data is stored: \"file\" keeps one folder of pack files per bank, \"mvstore\" keeps every bank in one", "embedded MVStore file. To switch, take a snapshot, change this, then restore the snapshot with /minty restore."})
+    private String storageEngine = "file";
+
+    @Comment("Seconds between transaction journal checkpoints.")
+    private int checkpointIntervalSeconds = 30;
+
+    @Comment("Minutes between autosaves of every loaded bank.")
+    private int autosaveIntervalMinutes = 5;
+
+    @Comment({"Seconds the shutdown flush may take. Banks still unsaved after that keep their balances", "in the transaction journal, which is replayed on the next start."})
+    private int shutdownFlushTimeoutSeconds = 30;
+
+    @Comment("Banks saved in parallel during the shutdown flush; 0 uses one per available core.")
+    private int shutdownFlushParallelism = 0;
+
+    @Comment({"Keep loaded accounts as views over shared primitive columns instead of one object each,", "which cuts their heap cost severalfold for servers with millions of accounts."})
+    private boolean compactAccounts = false;
+
+    @Comment("With compact accounts, keep the account columns in direct memory outside the Java heap.")
+    private boolean compactAccountsOffHeap = false;
+
+    @Comment("Transactions per ledger segment file; a full segment is sealed and indexed, and a new one is started.")
+    private int ledgerSegmentRecords = 16_384;
+
+    @Comment("Days a sealed ledger segment is kept after its newest transaction.")
+    private int ledgerRetentionDays = 90;
+
+    @Comment({"Minutes between snapshots; 0 only takes them on /minty snapshot.", "The first snapshot after a start is full, later ones only hold what changed since the previous one."})
+    private int snapshotIntervalMinutes = 60;
+
+    @Comment("Full snapshots kept, together with the incremental snapshots taken after each of them.")
+    private int snapshotFullRetention = 3;
+
+    @Comment({"Records per second /minty export reads from storage, shared by all of its workers; 0 removes the limit.", "Keeps an export running alongside online players from competing with saves for disk time."})
+    private int exportRecordsPerSecond = 20_000;
+
+    @Comment("Banks /minty export writes in parallel.")
+    private int exportParallelism = 2;
+
+    @Comment("Accounts ranked per bank and across all banks by /minty baltop and leaderboard placeholders.")
+    private int leaderboardSize = 100;
+
+    @Comment({"UUID of the bank holding each player's primary account, which Vault plugins see as the player's balance", "and in which Vault opens new accounts. Empty uses whichever of a player's accounts is seen first."})
+    private String vaultPrimaryBank = "";
+
+    @Comment("Currency names Vault plugins show next to amounts.")
+    private String vaultCurrencySingular = "Coin";
+    private String vaultCurrencyPlural = "Coins";
+}
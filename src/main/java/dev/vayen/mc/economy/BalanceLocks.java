@@ -0,0 +1,97 @@
+/*
+ * Minty (Minty.main): BalanceLocks.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.economy;
+
+import dev.vayen.mc.metrics.Metrics;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Stripes are always taken in ascending index order, so overlapping transfers can never deadlock.
+public final class BalanceLocks {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public BalanceLocks(int stripeCount) {
+        if (Integer.bitCount(stripeCount) != 1) throw new IllegalArgumentException("Stripe count must be a power of two");
+
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) stripes[i] = new ReentrantLock();
+        mask = stripeCount - 1;
+    }
+
+    public int stripe(String iban) {
+        var hash = iban.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    public Held lock(String iban) {
+        var index = stripe(iban);
+        acquire(stripes[index]);
+        return new Held(new int[]{index});
+    }
+
+    public Held lock(Collection<String> ibans) {
+        return lock(ibans.stream().mapToInt(this::stripe).distinct().sorted().toArray());
+    }
+
+    private Held lock(int[] indices) {
+        int locked = 0;
+        try {
+            for (var index : indices) {
+                acquire(stripes[index]);
+                locked++;
+            }
+        } finally {
+            if (locked != indices.length) {
+                for (int i = locked - 1; i >= 0; i--) stripes[indices[i]].unlock();
+            }
+        }
+        return new Held(indices);
+    }
+
+    public Held lockAll() {
+        var indices = new int[stripes.length];
+        for (int i = 0; i < indices.length; i++) indices[i] = i;
+        return lock(indices);
+    }
+
+    private static void acquire(ReentrantLock lock) {
+        if (lock.tryLock()) return;
+
+        var start = Metrics.LOCK_WAIT.start();
+        lock.lock();
+        Metrics.LOCK_WAIT.stop(start);
+    }
+
+    public final class Held implements AutoCloseable {
+        private final int[] indices;
+        private boolean released;
+
+        private Held(int[] indices) {
+            this.indices = indices;
+        }
+
+        @Override
+        public void close() {
+            if (released) return;
+            released = true;
+            for (int i = indices.length - 1; i >= 0; i--) stripes[indices[i]].unlock();
+        }
+    }
+}
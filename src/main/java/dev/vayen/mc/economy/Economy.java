@@ -18,69 +18,345 @@
 package dev.vayen.mc.economy;
 
 import dev.vayen.mc.Minty;
+import dev.vayen.mc.economy.bank.Bank;
+import dev.vayen.mc.economy.bank.BankCustomer;
 import dev.vayen.mc.economy.exception.BankNotFoundException;
 import dev.vayen.mc.economy.exception.CustomerNotFoundException;
 import dev.vayen.mc.economy.exception.InsufficientFundsException;
 import dev.vayen.mc.economy.exception.InvalidPaymentAmountException;
 import dev.vayen.mc.manager.BankManager;
+import dev.vayen.mc.metrics.Metrics;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
-import java.util.NoSuchElementException;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
 
+/**
+ * The blocking methods run on the calling thread, including any bank load, so keep them off the server thread.
+ * The {@code *Async} variants complete on Minty's economy executor and are not ordered relative to each other.
+ */
 public class Economy {
-    private static final Lock lock = new ReentrantLock();
+    private static final BalanceLocks locks = new BalanceLocks(1024);
+    private static volatile BankManager bankManager;
+    private static volatile ExecutorService asyncExecutor;
+
+    public static void bind(BankManager bankManager) {
+        Economy.bankManager = bankManager;
+    }
+
+    public static void startAsync() {
+        if (asyncExecutor == null) asyncExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Minty-Economy-", 0).factory());
+    }
+
+    public static void stopAsync(long timeout, TimeUnit unit) throws InterruptedException {
+        var executor = asyncExecutor;
+        if (executor == null) return;
+        asyncExecutor = null;
+        executor.shutdown();
+        if (!executor.awaitTermination(timeout, unit))
+            Minty.getInstance().LOGGER.warning("Economy executor did not finish pending operations in time");
+    }
+
+    public static <T> T withAllAccountsLocked(Supplier<T> action) {
+        try (var ignored = locks.lockAll()) {
+            return action.get();
+        }
+    }
+
+    public static <T> T withAccountLocked(String iban, Supplier<T> action) {
+        try (var ignored = locks.lock(iban)) {
+            return action.get();
+        }
+    }
+
+    public static Executor mainThread() {
+        return Bukkit.getScheduler().getMainThreadExecutor(Minty.getInstance());
+    }
+
+    public static CompletableFuture<Void> payAsync(String senderIban, String receiverIban, long amount) {
+        return async(() -> {
+            pay(senderIban, receiverIban, amount);
+            return null;
+        });
+    }
+
+    public static CompletableFuture<Void> depositAsync(String iban, long amount) {
+        return async(() -> {
+            deposit(iban, amount);
+            return null;
+        });
+    }
+
+    public static CompletableFuture<Void> withdrawAsync(String iban, long amount) {
+        return async(() -> {
+            withdraw(iban, amount);
+            return null;
+        });
+    }
+
+    public static CompletableFuture<Void> transferAsync(List<Posting> postings) {
+        return async(() -> {
+            transfer(postings);
+            return null;
+        });
+    }
+
+    public static CompletableFuture<List<BatchStatus>> payBatchAsync(Collection<Transfer> transfers) {
+        return async(() -> payBatch(transfers));
+    }
+
+    public static CompletableFuture<List<BatchStatus>> depositBatchAsync(Collection<Posting> deposits) {
+        return async(() -> depositBatch(deposits));
+    }
+
+    public static CompletableFuture<List<BatchStatus>> withdrawBatchAsync(Collection<Posting> withdrawals) {
+        return async(() -> withdrawBatch(withdrawals));
+    }
+
+    private static <T> CompletableFuture<T> async(Callable<T> operation) {
+        var future = new CompletableFuture<T>();
+        var executor = asyncExecutor;
+        if (executor == null) {
+            future.completeExceptionally(new IllegalStateException("Economy executor is not running"));
+            return future;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(operation.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
 
     public static void pay(String senderIban, String receiverIban, long amount) throws InvalidPaymentAmountException, NoSuchElementException, InsufficientFundsException, IOException, CustomerNotFoundException, BankNotFoundException {
-        var bm = Minty.getInstance().getBankManager();
-        var sender = bm.getCustomerByIban(senderIban).orElseThrow(() -> new CustomerNotFoundException(false));
-        var receiver = bm.getCustomerByIban(receiverIban).orElseThrow(() -> new CustomerNotFoundException(true));
-        var bank = bm.get(new BankManager.Params(sender.getBankUUID())).orElseThrow(() -> new BankNotFoundException(false));
-        var receiverBank = bm.get(new BankManager.Params(receiver.getBankUUID())).orElseThrow(() -> new BankNotFoundException(true));
-        var maxDebt = bank.getMaxDebt();
-
-        if (amount <= 0) throw new InvalidPaymentAmountException();
-
-        synchronized (sender) {
-            synchronized (receiver) {
-                if (sender.getBalance() - amount < (-maxDebt))
-                    throw new InsufficientFundsException(maxDebt);
-                var newReceiverBalance = receiver.getBalance() + amount;
-
-                sender.setBalance(sender.getBalance() - amount);
-                receiver.setBalance(newReceiverBalance);
-
-                bm.saveCustomer(bank, sender.getPlayerUUID(), sender);
-                bm.saveCustomer(receiverBank, receiver.getPlayerUUID(), receiver);
+        var start = Metrics.ECONOMY_PAY.start();
+        try {
+            if (amount <= 0) throw new InvalidPaymentAmountException();
+            post(List.of(new Posting(senderIban, -amount), new Posting(receiverIban, amount)), TransactionType.PAY_OUT, TransactionType.PAY_IN);
+        } finally {
+            Metrics.ECONOMY_PAY.stop(start);
+        }
+    }
+
+    public static void deposit(String iban, long amount) throws InvalidPaymentAmountException, NoSuchElementException, IOException, CustomerNotFoundException, BankNotFoundException {
+        var start = Metrics.ECONOMY_DEPOSIT.start();
+        try {
+            if (amount <= 0) throw new InvalidPaymentAmountException();
+            post(List.of(new Posting(iban, amount)), TransactionType.WITHDRAW, TransactionType.DEPOSIT);
+        } catch (InsufficientFundsException e) {
+            throw new IllegalStateException("A deposit cannot lower a balance", e);
+        } finally {
+            Metrics.ECONOMY_DEPOSIT.stop(start);
+        }
+    }
+
+    public static void withdraw(String iban, long amount) throws InvalidPaymentAmountException, NoSuchElementException, InsufficientFundsException, IOException, CustomerNotFoundException, BankNotFoundException {
+        var start = Metrics.ECONOMY_WITHDRAW.start();
+        try {
+            if (amount <= 0) throw new InvalidPaymentAmountException();
+            post(List.of(new Posting(iban, -amount)), TransactionType.WITHDRAW, TransactionType.DEPOSIT);
+        } finally {
+            Metrics.ECONOMY_WITHDRAW.stop(start);
+        }
+    }
+
+    public static void transfer(List<Posting> postings) throws InvalidPaymentAmountException, InsufficientFundsException, IOException, CustomerNotFoundException, BankNotFoundException {
+        var start = Metrics.ECONOMY_TRANSFER.start();
+        try {
+            post(postings, TransactionType.TRANSFER, TransactionType.TRANSFER);
+        } finally {
+            Metrics.ECONOMY_TRANSFER.stop(start);
+        }
+    }
+
+    private static void post(List<Posting> postings, TransactionType debit, TransactionType credit) throws InvalidPaymentAmountException, InsufficientFundsException, IOException, CustomerNotFoundException, BankNotFoundException {
+        bankManager.getJournal().ensureWritable();
+        try {
+            apply(resolve(postings), debit, credit);
+        } catch (ArithmeticException e) {
+            throw new InvalidPaymentAmountException();
+        }
+    }
+
+    private static Map<String, Leg> resolve(List<Posting> postings) throws IOException, CustomerNotFoundException, BankNotFoundException {
+        var bm = bankManager;
+        var legs = new LinkedHashMap<String, Leg>();
+        for (var posting : postings) {
+            var leg = legs.get(posting.iban());
+            if (leg == null) {
+                var isReceiver = posting.delta() > 0;
+                var customer = bm.getCustomerByIban(posting.iban()).orElseThrow(() -> new CustomerNotFoundException(isReceiver));
+                var bank = bm.get(new BankManager.Params(customer.getBankUUID())).orElseThrow(() -> new BankNotFoundException(isReceiver));
+                leg = new Leg(customer, bank.getMaxDebt());
+                legs.put(posting.iban(), leg);
+            }
+            leg.delta = Math.addExact(leg.delta, posting.delta());
+        }
+        return legs;
+    }
+
+    private static void apply(Map<String, Leg> legs, TransactionType debit, TransactionType credit) throws InsufficientFundsException {
+        var bm = bankManager;
+        try (var ignored = locks.lock(legs.keySet())) {
+            for (var leg : legs.values()) {
+                leg.next = Math.addExact(leg.customer.getBalance(), leg.delta);
+                if (leg.delta < 0 && leg.next < -leg.maxDebt) throw new InsufficientFundsException(leg.maxDebt);
+            }
+
+            for (var entry : legs.entrySet()) {
+                var leg = entry.getValue();
+                if (leg.delta == 0) continue;
+                bm.beforeBalanceChange(leg.customer);
+                leg.customer.setBalance(leg.next);
+                bm.recordBalance(leg.customer);
+                bm.recordTransaction(leg.customer, leg.delta < 0 ? debit : credit, leg.delta, counterparty(legs.keySet(), entry.getKey()));
             }
         }
     }
 
-    public static void deposit(String iban, long amount) throws NoSuchElementException, IOException, CustomerNotFoundException, BankNotFoundException {
-        var bm = Minty.getInstance().getBankManager();
-        var customer = bm.getCustomerByIban(iban).orElseThrow(() -> new CustomerNotFoundException(false));
-        var bank = bm.getCached(customer.getBankUUID()).orElseThrow(() -> new BankNotFoundException(false));
-        var newBalance = customer.getBalance() + amount;
+    public static List<BatchStatus> payBatch(Collection<Transfer> transfers) throws IOException {
+        var items = new ArrayList<List<Posting>>(transfers.size());
+        for (var transfer : transfers) {
+            items.add(transfer.amount() <= 0 ? null : List.of(new Posting(transfer.senderIban(), -transfer.amount()), new Posting(transfer.receiverIban(), transfer.amount())));
+        }
+        return applyBatch(items, TransactionType.PAY_OUT, TransactionType.PAY_IN);
+    }
+
+    public static List<BatchStatus> depositBatch(Collection<Posting> deposits) throws IOException {
+        var items = new ArrayList<List<Posting>>(deposits.size());
+        for (var deposit : deposits) items.add(deposit.delta() <= 0 ? null : List.of(deposit));
+        return applyBatch(items, TransactionType.WITHDRAW, TransactionType.DEPOSIT);
+    }
 
-        synchronized (customer) {
-            customer.setBalance(customer.getBalance() + amount);
-            bm.saveCustomer(bank, customer.getPlayerUUID(), customer);
+    public static List<BatchStatus> withdrawBatch(Collection<Posting> withdrawals) throws IOException {
+        var items = new ArrayList<List<Posting>>(withdrawals.size());
+        for (var withdrawal : withdrawals) {
+            items.add(withdrawal.delta() <= 0 ? null : List.of(new Posting(withdrawal.iban(), -withdrawal.delta())));
         }
+        return applyBatch(items, TransactionType.WITHDRAW, TransactionType.DEPOSIT);
     }
 
-    public static void withdraw(String iban, long amount) throws NoSuchElementException, InsufficientFundsException, IOException, CustomerNotFoundException, BankNotFoundException {
-        var bm = Minty.getInstance().getBankManager();
-        var customer = bm.getCustomerByIban(iban).orElseThrow(() -> new CustomerNotFoundException(false));
-        var bank = bm.get(new BankManager.Params(customer.getBankUUID())).orElseThrow(() -> new BankNotFoundException(false));
-        var maxDebt = bank.getMaxDebt();
+    private static List<BatchStatus> applyBatch(List<List<Posting>> items, TransactionType debit, TransactionType credit) throws IOException {
+        var start = Metrics.ECONOMY_BATCH.start();
+        try {
+            return applyBatchTimed(items, debit, credit);
+        } finally {
+            Metrics.ECONOMY_BATCH.stop(start);
+        }
+    }
+
+    private static List<BatchStatus> applyBatchTimed(List<List<Posting>> items, TransactionType debit, TransactionType credit) throws IOException {
+        var bm = bankManager;
+        bm.getJournal().ensureWritable();
+        var statuses = new BatchStatus[items.size()];
+        var accounts = new HashMap<String, Leg>();
+        var unresolved = new HashMap<String, BatchStatus>();
+        var banks = new HashMap<UUID, Optional<Bank>>();
+
+        for (int i = 0; i < items.size(); i++) {
+            var item = items.get(i);
+            if (item == null) {
+                statuses[i] = BatchStatus.INVALID_AMOUNT;
+                continue;
+            }
+
+            for (var posting : item) {
+                var iban = posting.iban();
+                if (!accounts.containsKey(iban) && !unresolved.containsKey(iban)) {
+                    var customer = bm.getCustomerByIban(iban);
+                    if (customer.isEmpty()) {
+                        unresolved.put(iban, BatchStatus.CUSTOMER_NOT_FOUND);
+                    } else {
+                        var bankUUID = customer.get().getBankUUID();
+                        var bank = banks.get(bankUUID);
+                        if (bank == null) {
+                            bank = bm.get(new BankManager.Params(bankUUID));
+                            banks.put(bankUUID, bank);
+                        }
+                        if (bank.isEmpty()) unresolved.put(iban, BatchStatus.BANK_NOT_FOUND);
+                        else accounts.put(iban, new Leg(customer.get(), bank.get().getMaxDebt()));
+                    }
+                }
+                if (statuses[i] == null && unresolved.containsKey(iban)) statuses[i] = unresolved.get(iban);
+            }
+        }
+
+        var touched = Collections.newSetFromMap(new IdentityHashMap<BankCustomer, Boolean>());
+        try (var ignored = locks.lock(accounts.keySet())) {
+            for (int i = 0; i < items.size(); i++) {
+                if (statuses[i] != null) continue;
+                statuses[i] = applyItem(items.get(i), accounts, touched, debit, credit);
+            }
+
+            for (var customer : touched) bm.recordBalance(customer);
+        }
+        return Arrays.asList(statuses);
+    }
+
+    private static BatchStatus applyItem(List<Posting> item, Map<String, Leg> accounts, Set<BankCustomer> touched, TransactionType debit, TransactionType credit) {
+        var legs = new LinkedHashMap<String, Long>(item.size());
+        try {
+            for (var posting : item) legs.merge(posting.iban(), posting.delta(), Math::addExact);
+
+            var next = new long[legs.size()];
+            int index = 0;
+            for (var entry : legs.entrySet()) {
+                var account = accounts.get(entry.getKey());
+                next[index] = Math.addExact(account.customer.getBalance(), entry.getValue());
+                if (entry.getValue() < 0 && next[index] < -account.maxDebt) return BatchStatus.INSUFFICIENT_FUNDS;
+                index++;
+            }
+
+            index = 0;
+            for (var entry : legs.entrySet()) {
+                var customer = accounts.get(entry.getKey()).customer;
+                if (entry.getValue() != 0) {
+                    bankManager.beforeBalanceChange(customer);
+                    customer.setBalance(next[index]);
+                    touched.add(customer);
+                    bankManager.recordTransaction(customer, entry.getValue() < 0 ? debit : credit, entry.getValue(), counterparty(legs.keySet(), entry.getKey()));
+                }
+                index++;
+            }
+            return BatchStatus.SUCCESS;
+        } catch (ArithmeticException e) {
+            return BatchStatus.INVALID_AMOUNT;
+        }
+    }
+
+    private static @Nullable String counterparty(Collection<String> ibans, String iban) {
+        if (ibans.size() != 2) return null;
+        for (var other : ibans) {
+            if (!other.equals(iban)) return other;
+        }
+        return null;
+    }
+
+    public record Posting(String iban, long delta) {
+    }
+
+    public record Transfer(String senderIban, String receiverIban, long amount) {
+    }
 
-        synchronized (customer) {
-            if (customer.getBalance() - amount < (-maxDebt))
-                throw new InsufficientFundsException(maxDebt);
+    private static final class Leg {
+        private final BankCustomer customer;
+        private final long maxDebt;
+        private long delta;
+        private long next;
 
-            customer.setBalance(customer.getBalance() - amount);
-            bm.saveCustomer(bank, customer.getPlayerUUID(), customer);
+        private Leg(BankCustomer customer, long maxDebt) {
+            this.customer = customer;
+            this.maxDebt = maxDebt;
         }
     }
 }
@@ -0,0 +1,118 @@
+/*
+ * Minty (Minty.main): Leaderboard.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.economy;
+
+import dev.vayen.mc.economy.bank.BankCustomer;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+public final class Leaderboard {
+    @Getter
+    private final int size;
+    private final int capacity;
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>();
+    private final Map<String, Entry> byIban = new ConcurrentHashMap<>();
+    private volatile int count;
+    private volatile boolean truncated;
+
+    public Leaderboard(int size) {
+        this.size = Math.max(1, size);
+        this.capacity = this.size * 2;
+    }
+
+    public synchronized void update(Entry entry) {
+        var previous = byIban.remove(entry.iban());
+        if (previous != null) {
+            ranking.remove(previous);
+            count--;
+        }
+
+        // Once accounts were dropped, one ranking below the tail may be below a dropped one too, so it is dropped as well.
+        if ((truncated || count >= capacity) && (ranking.isEmpty() || entry.compareTo(ranking.last()) > 0)) {
+            truncated = true;
+            return;
+        }
+
+        ranking.add(entry);
+        byIban.put(entry.iban(), entry);
+        if (++count > capacity) {
+            var dropped = ranking.pollLast();
+            if (dropped != null) byIban.remove(dropped.iban());
+            count--;
+            truncated = true;
+        }
+    }
+
+    public synchronized void remove(String iban) {
+        var previous = byIban.remove(iban);
+        if (previous != null && ranking.remove(previous)) count--;
+    }
+
+    public synchronized void removeBank(UUID bankUUID) {
+        for (var entry : List.copyOf(byIban.values())) {
+            if (entry.bankUUID().equals(bankUUID)) remove(entry.iban());
+        }
+    }
+
+    public synchronized void reset(Collection<Entry> entries, boolean truncated) {
+        ranking.clear();
+        byIban.clear();
+        count = 0;
+        this.truncated = false;
+        for (var entry : entries) update(entry);
+        this.truncated |= truncated;
+    }
+
+    public boolean needsRebuild() {
+        return truncated && count < size;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public List<Entry> top(int k) {
+        var limit = Math.min(k, size);
+        var top = new ArrayList<Entry>(Math.min(limit, count));
+        for (var entry : ranking) {
+            if (top.size() >= limit) break;
+            top.add(entry);
+        }
+        return top;
+    }
+
+    public List<Entry> kept() {
+        return new ArrayList<>(ranking);
+    }
+
+    public record Entry(UUID bankUUID, UUID playerUUID, String iban, long balance) implements Comparable<Entry> {
+        public static Entry of(BankCustomer customer) {
+            return new Entry(customer.getBankUUID(), customer.getPlayerUUID(), customer.getIban(), customer.getBalance());
+        }
+
+        @Override
+        public int compareTo(@NotNull Entry other) {
+            var byBalance = Long.compare(other.balance, balance);
+            return byBalance != 0 ? byBalance : iban.compareTo(other.iban);
+        }
+    }
+}
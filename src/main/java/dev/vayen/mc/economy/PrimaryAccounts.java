@@ -0,0 +1,109 @@
+/*
+ * Minty (Minty.main): PrimaryAccounts.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.economy;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.vayen.mc.economy.bank.BankCustomer;
+import lombok.Getter;
+import lombok.Setter;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class PrimaryAccounts {
+    private static final Duration ABSENT_TTL = Duration.ofMinutes(1);
+
+    private final Map<UUID, Account> accounts = new ConcurrentHashMap<>();
+    private final Cache<UUID, Boolean> absent = Caffeine.newBuilder().expireAfterWrite(ABSENT_TTL).build();
+    @Getter
+    @Setter
+    private volatile @Nullable UUID primaryBank;
+
+    public @Nullable Account get(UUID playerUUID) {
+        return accounts.get(playerUUID);
+    }
+
+    public void offer(BankCustomer customer) {
+        put(customer, false);
+    }
+
+    public void record(BankCustomer customer) {
+        put(customer, true);
+    }
+
+    public void forget(BankCustomer customer) {
+        accounts.computeIfPresent(customer.getPlayerUUID(), (playerUUID, existing) -> existing.iban.equals(customer.getIban()) ? null : existing);
+    }
+
+    public boolean isAbsent(UUID playerUUID) {
+        return absent.getIfPresent(playerUUID) != null;
+    }
+
+    public void markAbsent(UUID playerUUID) {
+        absent.put(playerUUID, Boolean.TRUE);
+        if (accounts.containsKey(playerUUID)) absent.invalidate(playerUUID);
+    }
+
+    public void clear() {
+        accounts.clear();
+        absent.invalidateAll();
+    }
+
+    private void put(BankCustomer customer, boolean recorded) {
+        putAccount(customer, recorded);
+        absent.invalidate(customer.getPlayerUUID());
+    }
+
+    private void putAccount(BankCustomer customer, boolean recorded) {
+        accounts.compute(customer.getPlayerUUID(), (playerUUID, existing) -> {
+            if (existing != null && existing.iban.equals(customer.getIban())) {
+                if (recorded) existing.balance = customer.getBalance();
+                return existing;
+            }
+            if (existing != null && (isPrimaryBank(existing.bankUUID) || !isPrimaryBank(customer.getBankUUID()))) return existing;
+            return new Account(customer.getBankUUID(), customer.getIban(), customer.getBalance());
+        });
+    }
+
+    private boolean isPrimaryBank(UUID bankUUID) {
+        return Objects.equals(primaryBank, bankUUID);
+    }
+
+    public static final class Account {
+        @Getter
+        private final UUID bankUUID;
+        @Getter
+        private final String iban;
+        private volatile long balance;
+
+        private Account(UUID bankUUID, String iban, long balance) {
+            this.bankUUID = bankUUID;
+            this.iban = iban;
+            this.balance = balance;
+        }
+
+        public long getBalance() {
+            return balance;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Minty (Minty.main): TransactionType.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.economy;
+
+public enum TransactionType {
+    DEPOSIT,
+    WITHDRAW,
+    PAY_OUT,
+    PAY_IN,
+    TRANSFER;
+
+    private static final TransactionType[] VALUES = values();
+
+    public static TransactionType of(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Minty (Minty.main): AccountStore.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.economy.bank;
+
+import dev.vayen.mc.manager.IbanIndex;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// Slot layout: balance, player UUID, (generation << 32 | bank index); the IBAN is derived from the two UUIDs.
+public final class AccountStore {
+    private static final int CHUNK_BITS = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int SLOT_LONGS = 4;
+    private static final int BALANCE = 0;
+    private static final int PLAYER_MOST = 1;
+    private static final int PLAYER_LEAST = 2;
+    private static final int BANK = 3;
+
+    private final boolean offHeap;
+    private final Map<UUID, Integer> bankIndexes = new HashMap<>();
+    private volatile UUID[] banks = new UUID[0];
+    private volatile Chunk[] chunks = new Chunk[0];
+    private int[] free = new int[64];
+    private int freeCount;
+    private int next;
+    private int size;
+
+    public AccountStore(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    public synchronized BankCustomer create(UUID playerUUID, UUID bankUUID, long balance) {
+        var id = freeCount > 0 ? free[--freeCount] : next++;
+        if (id >>> CHUNK_BITS >= chunks.length) grow();
+
+        var chunk = chunks[id >>> CHUNK_BITS];
+        var generation = generation(chunk.get(id, BANK)) + 1;
+        chunk.set(id, BALANCE, balance);
+        chunk.set(id, PLAYER_MOST, playerUUID.getMostSignificantBits());
+        chunk.set(id, PLAYER_LEAST, playerUUID.getLeastSignificantBits());
+        chunk.set(id, BANK, (long) generation << 32 | bankIndex(bankUUID));
+        size++;
+        return new StoredBankCustomer(this, id, generation);
+    }
+
+    public BankCustomer adopt(BankCustomer customer) {
+        if (customer instanceof StoredBankCustomer) return customer;
+        if (!customer.getIban().equals(IbanIndex.iban(IbanIndex.key(customer.getBankUUID(), customer.getPlayerUUID())))) return customer;
+
+        var stored = create(customer.getPlayerUUID(), customer.getBankUUID(), customer.getBalance());
+        if (customer.hasUnsavedChanges()) stored.markDirty();
+        else stored.markSaved(stored.changeVersion());
+        return stored;
+    }
+
+    public synchronized void release(BankCustomer customer) {
+        if (!(customer instanceof StoredBankCustomer stored) || stored.store != this || !isLive(stored.id, stored.generation)) return;
+
+        var chunk = chunks[stored.id >>> CHUNK_BITS];
+        chunk.set(stored.id, BANK, (long) (stored.generation + 1) << 32);
+        if (freeCount == free.length) free = Arrays.copyOf(free, free.length * 2);
+        free[freeCount++] = stored.id;
+        size--;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public long reservedBytes() {
+        return (long) chunks.length * CHUNK_SIZE * SLOT_LONGS * Long.BYTES;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    boolean isLive(int id, int generation) {
+        var current = chunks;
+        return id >>> CHUNK_BITS < current.length && generation(current[id >>> CHUNK_BITS].get(id, BANK)) == generation;
+    }
+
+    long balance(int id, int generation) {
+        return slot(id, generation).get(id, BALANCE);
+    }
+
+    void setBalance(int id, int generation, long balance) {
+        slot(id, generation).set(id, BALANCE, balance);
+    }
+
+    UUID playerUUID(int id, int generation) {
+        var chunk = slot(id, generation);
+        return new UUID(chunk.get(id, PLAYER_MOST), chunk.get(id, PLAYER_LEAST));
+    }
+
+    UUID bankUUID(int id, int generation) {
+        return banks[(int) slot(id, generation).get(id, BANK)];
+    }
+
+    String iban(int id, int generation) {
+        return IbanIndex.iban(IbanIndex.key(bankUUID(id, generation), playerUUID(id, generation)));
+    }
+
+    private Chunk slot(int id, int generation) {
+        var chunk = chunks[id >>> CHUNK_BITS];
+        if (generation(chunk.get(id, BANK)) != generation)
+            throw new IllegalStateException("Account slot " + id + " was released with its bank");
+        return chunk;
+    }
+
+    private int bankIndex(UUID bankUUID) {
+        var index = bankIndexes.get(bankUUID);
+        if (index != null) return index;
+
+        var current = banks;
+        var grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = bankUUID;
+        banks = grown;
+        bankIndexes.put(bankUUID, current.length);
+        return current.length;
+    }
+
+    private void grow() {
+        var current = chunks;
+        var grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = new Chunk(offHeap);
+        chunks = grown;
+    }
+
+    private static int generation(long bankWord) {
+        return (int) (bankWord >>> 32);
+    }
+
+    private static final class Chunk {
+        private final long[] heap;
+        private final ByteBuffer direct;
+
+        Chunk(boolean offHeap) {
+            heap = offHeap ? null : new long[CHUNK_SIZE * SLOT_LONGS];
+            direct = offHeap ? ByteBuffer.allocateDirect(CHUNK_SIZE * SLOT_LONGS * Long.BYTES).order(ByteOrder.nativeOrder()) : null;
+        }
+
+        long get(int id, int column) {
+            var index = (id & CHUNK_MASK) * SLOT_LONGS + column;
+            return heap != null ? heap[index] : direct.getLong(index * Long.BYTES);
+        }
+
+        void set(int id, int column, long value) {
+            var index = (id & CHUNK_MASK) * SLOT_LONGS + column;
+            if (heap != null) heap[index] = value;
+            else direct.putLong(index * Long.BYTES, value);
+        }
+    }
+}
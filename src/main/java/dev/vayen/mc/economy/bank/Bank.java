@@ -19,7 +19,7 @@ package dev.vayen.mc.economy.bank;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import org.bson.codecs.pojo.annotations.BsonIgnore;
+import lombok.EqualsAndHashCode;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,25 +27,34 @@ import java.util.UUID;
 
 @AllArgsConstructor
 @Data
-public class Bank {
+@EqualsAndHashCode(callSuper = false)
+public class Bank extends Persistable {
     UUID uuid;
     String name;
-    @BsonIgnore
-    List<BankCustomer> customers;
-    @BsonIgnore
-    List<BankLoan> loans;
+    LazyRecords<BankCustomer> customers;
+    LazyRecords<BankLoan> loans;
     long maxDebt;
 
+    public void setName(String name) {
+        this.name = name;
+        markDirty();
+    }
+
+    public void setMaxDebt(long maxDebt) {
+        this.maxDebt = maxDebt;
+        markDirty();
+    }
+
     public void addCustomer(BankCustomer customer) {
         customers.add(customer);
     }
 
     public void removeCustomer(UUID uuid) {
-        customers.removeIf(c -> c.getPlayerUUID().equals(uuid));
+        customers.remove(uuid);
     }
 
     public Optional<BankCustomer> getCustomer(UUID uuid) {
-        return customers.stream().filter(c -> c.getPlayerUUID().equals(uuid)).distinct().findFirst();
+        return Optional.ofNullable(customers.get(uuid));
     }
 
     public void addLoan(BankLoan loan) {
@@ -53,14 +62,18 @@ public class Bank {
     }
 
     public void removeLoan(UUID uuid) {
-        loans.removeIf(c -> c.getUuid().equals(uuid));
+        loans.remove(uuid);
     }
 
     public Optional<BankLoan> getLoan(UUID uuid) {
-        return loans.stream().filter(c -> c.getUuid().equals(uuid)).distinct().findFirst();
+        return Optional.ofNullable(loans.get(uuid));
     }
 
     public Optional<BankLoan> getLoanByCustomer(UUID customerUUID) {
-        return loans.stream().filter(c -> c.getCustomerUUID().equals(customerUUID)).distinct().findFirst();
+        return getLoansByCustomer(customerUUID).stream().findFirst();
+    }
+
+    public List<BankLoan> getLoansByCustomer(UUID customerUUID) {
+        return loans.group(customerUUID);
     }
 }
@@ -0,0 +1,65 @@
+/*
+ * Minty (Minty.main): BankCodec.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.economy.bank;
+
+import org.bson.BsonInvalidOperationException;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.UUID;
+
+public class BankCodec implements Codec<Bank> {
+    @Override
+    public void encode(BsonWriter writer, Bank bank, EncoderContext context) {
+        writer.writeStartDocument();
+        BsonFields.writeUuid(writer, "uuid", bank.getUuid());
+        writer.writeString("name", bank.getName());
+        writer.writeInt64("maxDebt", bank.getMaxDebt());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Bank decode(BsonReader reader, DecoderContext context) {
+        UUID uuid = null;
+        String name = null;
+        long maxDebt = 0;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "uuid" -> uuid = BsonFields.readUuid(reader);
+                case "name" -> name = reader.readString();
+                case "maxDebt" -> maxDebt = BsonFields.readLong(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        if (uuid == null || name == null) throw new BsonInvalidOperationException("Incomplete bank record");
+        return new Bank(uuid, name, null, null, maxDebt);
+    }
+
+    @Override
+    public Class<Bank> getEncoderClass() {
+        return Bank.class;
+    }
+}
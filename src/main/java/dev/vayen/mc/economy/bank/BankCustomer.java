@@ -18,15 +18,65 @@
 package dev.vayen.mc.economy.bank;
 
 import lombok.AllArgsConstructor;
-import lombok.Data;
 
+import java.util.Objects;
 import java.util.UUID;
 
 @AllArgsConstructor
-@Data
-public class BankCustomer {
+public class BankCustomer extends Persistable {
     private final UUID playerUUID;
     private final UUID bankUUID;
     private final String iban;
     private long balance;
-}
\ No newline at end of file
+
+    BankCustomer() {
+        this(null, null, null, 0);
+    }
+
+    public static BankCustomer of(UUID playerUUID, UUID bankUUID, String iban, long balance) {
+        return new BankCustomer(playerUUID, bankUUID, iban, balance);
+    }
+
+    public UUID getPlayerUUID() {
+        return playerUUID;
+    }
+
+    public UUID getBankUUID() {
+        return bankUUID;
+    }
+
+    public String getIban() {
+        return iban;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    public void setBalance(long balance) {
+        this.balance = balance;
+        markDirty();
+    }
+
+    public boolean isLive() {
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BankCustomer other)) return false;
+        return getBalance() == other.getBalance() && Objects.equals(getPlayerUUID(), other.getPlayerUUID())
+                && Objects.equals(getBankUUID(), other.getBankUUID()) && Objects.equals(getIban(), other.getIban());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getPlayerUUID(), getBankUUID(), getIban(), getBalance());
+    }
+
+    @Override
+    public String toString() {
+        return "BankCustomer(playerUUID=" + getPlayerUUID() + ", bankUUID=" + getBankUUID() + ", iban=" + getIban() + ", balance=" + getBalance() + ")";
+    }
+}
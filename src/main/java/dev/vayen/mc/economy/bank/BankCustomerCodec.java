@@ -0,0 +1,68 @@
+/*
+ * Minty (Minty.main): BankCustomerCodec.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.economy.bank;
+
+import org.bson.BsonInvalidOperationException;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.UUID;
+
+public class BankCustomerCodec implements Codec<BankCustomer> {
+    @Override
+    public void encode(BsonWriter writer, BankCustomer customer, EncoderContext context) {
+        writer.writeStartDocument();
+        BsonFields.writeUuid(writer, "playerUUID", customer.getPlayerUUID());
+        BsonFields.writeUuid(writer, "bankUUID", customer.getBankUUID());
+        writer.writeString("iban", customer.getIban());
+        writer.writeInt64("balance", customer.getBalance());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public BankCustomer decode(BsonReader reader, DecoderContext context) {
+        UUID playerUUID = null;
+        UUID bankUUID = null;
+        String iban = null;
+        long balance = 0;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "playerUUID" -> playerUUID = BsonFields.readUuid(reader);
+                case "bankUUID" -> bankUUID = BsonFields.readUuid(reader);
+                case "iban" -> iban = reader.readString();
+                case "balance" -> balance = BsonFields.readLong(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        if (playerUUID == null || bankUUID == null || iban == null) throw new BsonInvalidOperationException("Incomplete customer record");
+        return BankCustomer.of(playerUUID, bankUUID, iban, balance);
+    }
+
+    @Override
+    public Class<BankCustomer> getEncoderClass() {
+        return BankCustomer.class;
+    }
+}
@@ -19,12 +19,14 @@ package dev.vayen.mc.economy.bank;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 import java.util.UUID;
 
 @Data
 @AllArgsConstructor
-public class BankLoan {
+@EqualsAndHashCode(callSuper = false)
+public class BankLoan extends Persistable {
     private final UUID uuid;
     private final UUID bank;
     private final UUID customerUUID;
@@ -32,4 +34,30 @@ public class BankLoan {
     private long amountPaid;
     private float interestRate;
     private int durationInDays;
+    private long lastAccrualDay;
+
+    public void setAmount(long amount) {
+        this.amount = amount;
+        markDirty();
+    }
+
+    public void setAmountPaid(long amountPaid) {
+        this.amountPaid = amountPaid;
+        markDirty();
+    }
+
+    public void setInterestRate(float interestRate) {
+        this.interestRate = interestRate;
+        markDirty();
+    }
+
+    public void setDurationInDays(int durationInDays) {
+        this.durationInDays = durationInDays;
+        markDirty();
+    }
+
+    public void setLastAccrualDay(long lastAccrualDay) {
+        this.lastAccrualDay = lastAccrualDay;
+        markDirty();
+    }
 }
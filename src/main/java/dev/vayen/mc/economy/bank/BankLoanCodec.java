@@ -0,0 +1,80 @@
+/*
+ * Minty (Minty.main): BankLoanCodec.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.economy.bank;
+
+import org.bson.BsonInvalidOperationException;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.UUID;
+
+public class BankLoanCodec implements Codec<BankLoan> {
+    @Override
+    public void encode(BsonWriter writer, BankLoan loan, EncoderContext context) {
+        writer.writeStartDocument();
+        BsonFields.writeUuid(writer, "uuid", loan.getUuid());
+        BsonFields.writeUuid(writer, "bank", loan.getBank());
+        BsonFields.writeUuid(writer, "customerUUID", loan.getCustomerUUID());
+        writer.writeInt64("amount", loan.getAmount());
+        writer.writeInt64("amountPaid", loan.getAmountPaid());
+        writer.writeDouble("interestRate", loan.getInterestRate());
+        writer.writeInt32("durationInDays", loan.getDurationInDays());
+        writer.writeInt64("lastAccrualDay", loan.getLastAccrualDay());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public BankLoan decode(BsonReader reader, DecoderContext context) {
+        UUID uuid = null;
+        UUID bank = null;
+        UUID customerUUID = null;
+        long amount = 0;
+        long amountPaid = 0;
+        float interestRate = 0;
+        int durationInDays = 0;
+        long lastAccrualDay = 0;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "uuid" -> uuid = BsonFields.readUuid(reader);
+                case "bank" -> bank = BsonFields.readUuid(reader);
+                case "customerUUID" -> customerUUID = BsonFields.readUuid(reader);
+                case "amount" -> amount = BsonFields.readLong(reader);
+                case "amountPaid" -> amountPaid = BsonFields.readLong(reader);
+                case "interestRate" -> interestRate = (float) BsonFields.readDouble(reader);
+                case "durationInDays" -> durationInDays = (int) BsonFields.readLong(reader);
+                case "lastAccrualDay" -> lastAccrualDay = BsonFields.readLong(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        if (uuid == null || bank == null || customerUUID == null) throw new BsonInvalidOperationException("Incomplete loan record");
+        return new BankLoan(uuid, bank, customerUUID, amount, amountPaid, interestRate, durationInDays, lastAccrualDay);
+    }
+
+    @Override
+    public Class<BankLoan> getEncoderClass() {
+        return BankLoan.class;
+    }
+}
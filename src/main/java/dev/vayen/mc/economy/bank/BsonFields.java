@@ -0,0 +1,59 @@
+/*
+ * Minty (Minty.main): BsonFields.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.economy.bank;
+
+import org.bson.BsonBinary;
+import org.bson.BsonBinarySubType;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.UuidRepresentation;
+
+import java.util.UUID;
+
+final class BsonFields {
+    private BsonFields() {
+    }
+
+    static void writeUuid(BsonWriter writer, String name, UUID uuid) {
+        writer.writeBinaryData(name, new BsonBinary(uuid, UuidRepresentation.STANDARD));
+    }
+
+    static UUID readUuid(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) return UUID.fromString(reader.readString());
+
+        var binary = reader.readBinaryData();
+        return binary.asUuid(binary.getType() == BsonBinarySubType.UUID_LEGACY.getValue() ? UuidRepresentation.JAVA_LEGACY : UuidRepresentation.STANDARD);
+    }
+
+    static long readLong(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> reader.readInt32();
+            case DOUBLE -> (long) reader.readDouble();
+            default -> reader.readInt64();
+        };
+    }
+
+    static double readDouble(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> reader.readInt32();
+            case INT64 -> reader.readInt64();
+            default -> reader.readDouble();
+        };
+    }
+}
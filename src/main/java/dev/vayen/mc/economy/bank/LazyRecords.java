@@ -0,0 +1,198 @@
+/*
+ * Minty (Minty.main): LazyRecords.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.economy.bank;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+public class LazyRecords<T> {
+    private final Function<T, UUID> keyFunction;
+    private final Set<UUID> keys = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, T> loaded = new ConcurrentHashMap<>();
+    private volatile @Nullable Loader<T> loader;
+    private final UnaryOperator<T> admit;
+    private @Nullable Function<T, UUID> groupFunction;
+    private volatile @Nullable Map<UUID, Set<UUID>> groups;
+
+    public LazyRecords(Function<T, UUID> keyFunction) {
+        this.keyFunction = keyFunction;
+        this.admit = UnaryOperator.identity();
+    }
+
+    public LazyRecords(Function<T, UUID> keyFunction, Collection<UUID> keys, @NotNull Loader<T> loader, UnaryOperator<T> admit) {
+        this.keyFunction = keyFunction;
+        this.keys.addAll(keys);
+        this.loader = loader;
+        this.admit = admit;
+    }
+
+    public LazyRecords<T> withGroupIndex(Function<T, UUID> groupFunction) {
+        this.groupFunction = groupFunction;
+        return this;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public boolean contains(UUID key) {
+        return keys.contains(key);
+    }
+
+    public Set<UUID> keys() {
+        return Collections.unmodifiableSet(keys);
+    }
+
+    public @Nullable T peek(UUID key) {
+        return loaded.get(key);
+    }
+
+    public @Nullable T get(UUID key) {
+        var record = loaded.get(key);
+        var currentLoader = loader;
+        if (record != null || currentLoader == null || !keys.contains(key)) return record;
+
+        return loaded.computeIfAbsent(key, k -> {
+            try {
+                var decoded = currentLoader.load(k);
+                return decoded == null ? null : admit.apply(decoded);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public void add(T record) {
+        var key = keyFunction.apply(record);
+        var previous = loaded.put(key, record);
+        keys.add(key);
+
+        var currentGroups = groups;
+        if (currentGroups != null && groupFunction != null) {
+            if (previous != null) ungroup(currentGroups, groupFunction.apply(previous), key);
+            currentGroups.computeIfAbsent(groupFunction.apply(record), k -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    public @Nullable T remove(UUID key) {
+        keys.remove(key);
+        var removed = loaded.remove(key);
+
+        var currentGroups = groups;
+        if (removed != null && currentGroups != null && groupFunction != null)
+            ungroup(currentGroups, groupFunction.apply(removed), key);
+        return removed;
+    }
+
+    public List<T> group(UUID groupKey) {
+        var members = groups().get(groupKey);
+        if (members == null) return List.of();
+
+        var result = new ArrayList<T>(members.size());
+        for (var key : members) {
+            var record = get(key);
+            if (record != null) result.add(record);
+        }
+        return result;
+    }
+
+    private Map<UUID, Set<UUID>> groups() {
+        var currentGroups = groups;
+        if (currentGroups != null) return currentGroups;
+        if (groupFunction == null) throw new IllegalStateException("No group index configured");
+
+        synchronized (this) {
+            if (groups == null) {
+                var built = new ConcurrentHashMap<UUID, Set<UUID>>();
+                for (var record : values())
+                    built.computeIfAbsent(groupFunction.apply(record), k -> ConcurrentHashMap.newKeySet()).add(keyFunction.apply(record));
+                groups = built;
+            }
+            return groups;
+        }
+    }
+
+    private static void ungroup(Map<UUID, Set<UUID>> groups, UUID groupKey, UUID key) {
+        groups.computeIfPresent(groupKey, (k, members) -> {
+            members.remove(key);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    public Collection<T> loaded() {
+        return Collections.unmodifiableCollection(loaded.values());
+    }
+
+    public Collection<T> values() {
+        loadAll();
+        return Collections.unmodifiableCollection(loaded.values());
+    }
+
+    public boolean isFullyLoaded() {
+        return loader == null;
+    }
+
+    public void prefetch(Collection<UUID> wanted) {
+        var currentLoader = loader;
+        if (currentLoader == null) return;
+
+        var missing = new HashSet<UUID>();
+        for (var key : wanted) {
+            if (keys.contains(key) && !loaded.containsKey(key)) missing.add(key);
+        }
+        if (missing.isEmpty()) return;
+
+        try {
+            currentLoader.loadAll(missing, this::putLoaded);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void loadAll() {
+        var currentLoader = loader;
+        if (currentLoader == null) return;
+
+        var missing = new HashSet<>(keys);
+        missing.removeAll(loaded.keySet());
+        try {
+            if (!missing.isEmpty()) currentLoader.loadAll(missing, this::putLoaded);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        loader = null;
+    }
+
+    private void putLoaded(UUID key, T record) {
+        if (keys.contains(key)) loaded.computeIfAbsent(key, k -> admit.apply(record));
+    }
+
+    public interface Loader<T> {
+        @Nullable T load(UUID key) throws IOException;
+
+        void loadAll(Set<UUID> keys, BiConsumer<UUID, T> sink) throws IOException;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Minty (Minty.main): Persistable.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.economy.bank;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public abstract class Persistable {
+    private static final AtomicLong CLOCK = new AtomicLong();
+
+    private transient volatile long version;
+    private transient volatile long savedVersion = -1;
+
+    public static long currentVersion() {
+        return CLOCK.get();
+    }
+
+    public void markDirty() {
+        version = CLOCK.incrementAndGet();
+    }
+
+    public boolean hasUnsavedChanges() {
+        return version != savedVersion;
+    }
+
+    // Read before encoding, then pass to markSaved: changes made while encoding keep the record dirty.
+    public long changeVersion() {
+        return version;
+    }
+
+    public synchronized void markSaved(long savedVersion) {
+        if (savedVersion > this.savedVersion) this.savedVersion = savedVersion;
+    }
+}
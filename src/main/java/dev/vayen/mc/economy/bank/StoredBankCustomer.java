@@ -0,0 +1,63 @@
+/*
+ * Minty (Minty.main): StoredBankCustomer.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.economy.bank;
+
+import java.util.UUID;
+
+final class StoredBankCustomer extends BankCustomer {
+    final AccountStore store;
+    final int id;
+    final int generation;
+
+    StoredBankCustomer(AccountStore store, int id, int generation) {
+        this.store = store;
+        this.id = id;
+        this.generation = generation;
+    }
+
+    @Override
+    public UUID getPlayerUUID() {
+        return store.playerUUID(id, generation);
+    }
+
+    @Override
+    public UUID getBankUUID() {
+        return store.bankUUID(id, generation);
+    }
+
+    @Override
+    public String getIban() {
+        return store.iban(id, generation);
+    }
+
+    @Override
+    public long getBalance() {
+        return store.balance(id, generation);
+    }
+
+    @Override
+    public void setBalance(long balance) {
+        store.setBalance(id, generation, balance);
+        markDirty();
+    }
+
+    @Override
+    public boolean isLive() {
+        return store.isLive(id, generation);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Minty (Minty.main): LoanBook.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.economy.loan;
+
+import dev.vayen.mc.economy.bank.BankLoan;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Rows are written back as deltas on what they were read from, so a loan edited in the meantime keeps that edit.
+final class LoanBook {
+    private static final double DAYS_PER_YEAR = 365;
+
+    final BankLoan[] loans;
+    final boolean[] detached;
+    final long[] versions;
+    final String[] ibans;
+    final long[] baseOwed;
+    final long[] basePaid;
+    final int[] baseDays;
+    final long[] baseDay;
+    final long[] owed;
+    final long[] paid;
+    final double[] dailyRate;
+    final int[] remainingDays;
+    final long[] lastDay;
+    final long[] due;
+    final boolean[] changed;
+    int size;
+
+    LoanBook(int capacity) {
+        loans = new BankLoan[capacity];
+        detached = new boolean[capacity];
+        versions = new long[capacity];
+        ibans = new String[capacity];
+        baseOwed = new long[capacity];
+        basePaid = new long[capacity];
+        baseDays = new int[capacity];
+        baseDay = new long[capacity];
+        owed = new long[capacity];
+        paid = new long[capacity];
+        dailyRate = new double[capacity];
+        remainingDays = new int[capacity];
+        lastDay = new long[capacity];
+        due = new long[capacity];
+        changed = new boolean[capacity];
+    }
+
+    void load(List<BankLoan> slice, Predicate<BankLoan> isDetached, Map<UUID, String> borrowerIbans) {
+        size = slice.size();
+        for (int i = 0; i < size; i++) {
+            var loan = slice.get(i);
+            loans[i] = loan;
+            detached[i] = isDetached.test(loan);
+            ibans[i] = borrowerIbans.get(loan.getCustomerUUID());
+            synchronized (loan) {
+                versions[i] = loan.changeVersion();
+                baseOwed[i] = owed[i] = loan.getAmount();
+                basePaid[i] = paid[i] = loan.getAmountPaid();
+                baseDays[i] = remainingDays[i] = loan.getDurationInDays();
+                baseDay[i] = lastDay[i] = loan.getLastAccrualDay();
+                dailyRate[i] = loan.getInterestRate() / 100d / DAYS_PER_YEAR;
+            }
+            due[i] = 0;
+            changed[i] = false;
+        }
+    }
+    void accrue(long today, LoanRun run) {
+        for (int i = 0; i < size; i++) {
+            var days = today - lastDay[i];
+            if (lastDay[i] == 0) {
+                lastDay[i] = today;
+                changed[i] = true;
+                continue;
+            }
+            if (days <= 0) continue;
+
+            changed[i] = true;
+            lastDay[i] = today;
+            var outstanding = owed[i] - paid[i];
+            if (outstanding <= 0) continue;
+
+            var interest = Math.round(outstanding * Math.expm1(days * Math.log1p(dailyRate[i])));
+            owed[i] += interest;
+            outstanding += interest;
+            run.interest += interest;
+
+            var remaining = remainingDays[i];
+            due[i] = remaining <= days ? outstanding : (long) ((double) outstanding * days / remaining);
+            remainingDays[i] = (int) Math.max(0, remaining - days);
+        }
+    }
+
+    List<BankLoan> writeBack() {
+        var stored = new ArrayList<BankLoan>();
+        for (int i = 0; i < size; i++) {
+            if (!changed[i]) continue;
+            if (detached[i]) {
+                set(loans[i], i);
+                stored.add(loans[i]);
+                continue;
+            }
+            var loan = loans[i];
+            synchronized (loan) {
+                if (loan.changeVersion() == versions[i]) set(loan, i);
+                else merge(loan, i);
+            }
+        }
+        return stored;
+    }
+
+    void mergeDetached(Function<UUID, @Nullable BankLoan> current) {
+        for (int i = 0; i < size; i++) {
+            if (!changed[i] || !detached[i]) continue;
+            var loan = current.apply(loans[i].getUuid());
+            if (loan == null || loan == loans[i]) continue;
+            synchronized (loan) {
+                if (loan.getLastAccrualDay() == baseDay[i]) merge(loan, i);
+            }
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            loans[i] = null;
+            ibans[i] = null;
+        }
+        size = 0;
+    }
+
+    private void set(BankLoan loan, int i) {
+        if (loan.getAmount() != owed[i]) loan.setAmount(owed[i]);
+        if (loan.getAmountPaid() != paid[i]) loan.setAmountPaid(paid[i]);
+        if (loan.getDurationInDays() != remainingDays[i]) loan.setDurationInDays(remainingDays[i]);
+        loan.setLastAccrualDay(lastDay[i]);
+    }
+
+    private void merge(BankLoan loan, int i) {
+        loan.setAmount(loan.getAmount() + owed[i] - baseOwed[i]);
+        loan.setAmountPaid(loan.getAmountPaid() + paid[i] - basePaid[i]);
+        loan.setDurationInDays(Math.max(0, loan.getDurationInDays() - (baseDays[i] - remainingDays[i])));
+        loan.setLastAccrualDay(Math.max(loan.getLastAccrualDay(), lastDay[i]));
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Minty (Minty.main): LoanEngine.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.economy.loan;
+
+import dev.vayen.mc.economy.Economy;
+import dev.vayen.mc.economy.bank.Bank;
+import dev.vayen.mc.economy.bank.BankLoan;
+import dev.vayen.mc.manager.BankManager;
+import dev.vayen.mc.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Accrues interest and collects installments daily. {@link #tick()} works through slices of loans until its time budget
+ * is spent; a bank a pass could not reach catches up through each loan's {@code lastAccrualDay}.
+ */
+public class LoanEngine {
+    private static final int SLICE_SIZE = 1024;
+    private static final long TICK_BUDGET_NANOS = 5_000_000;
+
+    private final BankManager bankManager;
+    private final Logger logger;
+    private final Clock clock;
+    private final LoanBook book = new LoanBook(SLICE_SIZE);
+    private final ArrayDeque<UUID> pendingBanks = new ArrayDeque<>();
+    private long completedDay;
+    private LoanRun run;
+    private UUID bankUUID;
+    private UUID cursor;
+
+    public LoanEngine(BankManager bankManager, Logger logger, Clock clock) {
+        this.bankManager = bankManager;
+        this.logger = logger;
+        this.clock = clock;
+    }
+
+    public synchronized void tick() {
+        if (run == null) {
+            var today = LocalDate.now(clock).toEpochDay();
+            if (today <= completedDay) return;
+
+            var banks = new LinkedHashSet<>(bankManager.getCache().asMap().keySet());
+            try {
+                banks.addAll(bankManager.getStorage().banks());
+            } catch (IOException e) {
+                logger.warning(String.format("Failed to list stored banks for loan processing, only loaded banks are covered today: %s", e.getMessage()));
+            }
+            run = new LoanRun(today);
+            pendingBanks.addAll(banks);
+        }
+
+        var deadline = System.nanoTime() + TICK_BUDGET_NANOS;
+        while (System.nanoTime() < deadline) {
+            if (bankUUID == null) {
+                bankUUID = pendingBanks.poll();
+                cursor = null;
+                if (bankUUID == null) {
+                    finishRun();
+                    return;
+                }
+            }
+
+            var start = Metrics.LOAN_SLICE.start();
+            try {
+                var slice = new ArrayList<BankLoan>(SLICE_SIZE);
+                cursor = bankManager.scanStoredLoans(bankUUID, cursor, SLICE_SIZE, slice::add);
+                if (!slice.isEmpty()) processSlice(slice);
+            } catch (IOException | UncheckedIOException e) {
+                logger.warning(String.format("Failed to process loans of Bank %s: %s", bankUUID, e.getMessage()));
+                cursor = null;
+            } finally {
+                Metrics.LOAN_SLICE.stop(start);
+            }
+            if (cursor == null) bankUUID = null;
+        }
+    }
+
+    private void processSlice(List<BankLoan> stored) throws IOException {
+        var slice = new ArrayList<BankLoan>(stored.size());
+        var loaded = bankManager.getCached(bankUUID).map(Bank::getLoans).orElse(null);
+        for (var loan : stored) {
+            if (loaded == null) {
+                slice.add(loan);
+            } else if (loaded.contains(loan.getUuid())) {
+                var current = loaded.peek(loan.getUuid());
+                slice.add(current == null ? loan : current);
+            }
+        }
+        if (slice.isEmpty()) return;
+
+        var borrowers = new HashSet<UUID>();
+        for (var loan : slice) borrowers.add(loan.getCustomerUUID());
+        var detached = Collections.newSetFromMap(new IdentityHashMap<BankLoan, Boolean>());
+        detached.addAll(stored);
+        book.load(slice, detached::contains, bankManager.ibansOf(bankUUID, borrowers));
+        book.accrue(run.day, run);
+        run.loans += slice.size();
+
+        var rows = new int[book.size];
+        var postings = new ArrayList<Economy.Posting>();
+        for (int i = 0; i < book.size; i++) {
+            if (book.due[i] <= 0) continue;
+            if (book.ibans[i] == null) {
+                run.missed++;
+                continue;
+            }
+            rows[postings.size()] = i;
+            postings.add(new Economy.Posting(book.ibans[i], book.due[i]));
+        }
+
+        if (!postings.isEmpty()) {
+            try {
+                var statuses = Economy.withdrawBatch(postings);
+                for (int k = 0; k < statuses.size(); k++) {
+                    var row = rows[k];
+                    if (statuses.get(k).isSuccess()) {
+                        book.paid[row] += book.due[row];
+                        run.collected += book.due[row];
+                    } else {
+                        run.missed++;
+                    }
+                }
+            } catch (IOException e) {
+                run.missed += postings.size();
+                logger.warning(String.format("Failed to collect loan installments for Bank %s: %s", bankUUID, e.getMessage()));
+            }
+        }
+
+        try {
+            bankManager.saveStoredLoans(bankUUID, book.writeBack());
+            book.mergeDetached(uuid -> bankManager.getCached(bankUUID).map(bank -> bank.getLoans().peek(uuid)).orElse(null));
+        } catch (IOException e) {
+            logger.warning(String.format("Failed to store loans of Bank %s, saving them through the bank: %s", bankUUID, e.getMessage()));
+            var bank = bankManager.get(new BankManager.Params(bankUUID));
+            book.mergeDetached(uuid -> bank.map(loadedBank -> loadedBank.getLoans().get(uuid)).orElse(null));
+        } finally {
+            book.clear();
+        }
+    }
+
+    private void finishRun() {
+        completedDay = run.day;
+        if (run.loans > 0) {
+            logger.info(String.format("Processed %d loans: %d interest accrued, %d collected, %d installments missed",
+                    run.loans, run.interest, run.collected, run.missed));
+        }
+        run = null;
+    }
+}
@@ -0,0 +1,396 @@
+/*
+ * Minty (Minty.main): VaultEconomy.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.economy.vault;
+
+import dev.vayen.mc.Minty;
+import dev.vayen.mc.economy.Economy;
+import dev.vayen.mc.economy.PrimaryAccounts;
+import dev.vayen.mc.economy.exception.InsufficientFundsException;
+import dev.vayen.mc.manager.BankManager;
+import net.milkbowl.vault.economy.EconomyResponse;
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.plugin.ServicePriority;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class VaultEconomy implements net.milkbowl.vault.economy.Economy, Listener {
+    private final Minty plugin;
+    private final BankManager bankManager;
+    private final PrimaryAccounts accounts;
+    private final String currencySingular;
+    private final String currencyPlural;
+    private final Set<UUID> resolving = ConcurrentHashMap.newKeySet();
+
+    private VaultEconomy(Minty plugin, BankManager bankManager, String currencySingular, String currencyPlural) {
+        this.plugin = plugin;
+        this.bankManager = bankManager;
+        this.accounts = bankManager.getPrimaryAccounts();
+        this.currencySingular = currencySingular;
+        this.currencyPlural = currencyPlural;
+    }
+
+    public static void register(Minty plugin, BankManager bankManager, String currencySingular, String currencyPlural) {
+        var economy = new VaultEconomy(plugin, bankManager, currencySingular, currencyPlural);
+        Bukkit.getServicesManager().register(net.milkbowl.vault.economy.Economy.class, economy, plugin, ServicePriority.High);
+        Bukkit.getPluginManager().registerEvents(economy, plugin);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) resolve(event.getUniqueId());
+    }
+
+    private @Nullable PrimaryAccounts.Account account(UUID playerUUID) {
+        var account = accounts.get(playerUUID);
+        if (account == null && !accounts.isAbsent(playerUUID) && resolving.add(playerUUID)) {
+            Bukkit.getAsyncScheduler().runNow(plugin, task -> {
+                try {
+                    resolve(playerUUID);
+                } finally {
+                    resolving.remove(playerUUID);
+                }
+            });
+        }
+        return account;
+    }
+
+    private void resolve(UUID playerUUID) {
+        try {
+            bankManager.resolvePrimaryAccount(playerUUID);
+        } catch (IOException e) {
+            plugin.LOGGER.warning(String.format("Failed to resolve the primary account of %s: %s", playerUUID, e.getMessage()));
+        }
+    }
+
+    private static @Nullable UUID uuid(@Nullable String playerName) {
+        if (playerName == null) return null;
+        var player = Bukkit.getOfflinePlayerIfCached(playerName);
+        return player == null ? null : player.getUniqueId();
+    }
+
+    private static EconomyResponse failure(double amount, double balance, String message) {
+        return new EconomyResponse(amount, balance, ResponseType.FAILURE, message);
+    }
+
+    private EconomyResponse withdraw(@Nullable UUID playerUUID, double amount) {
+        if (playerUUID == null) return failure(amount, 0, "Unknown player");
+        if (!Double.isFinite(amount) || amount < 0) return failure(amount, 0, "Cannot withdraw a negative amount");
+        var units = (long) amount;
+        if (units != amount) return failure(amount, 0, String.format("Amounts must be whole %s", currencyPlural));
+        if (units == 0) return failure(amount, 0, "Cannot withdraw nothing");
+
+        try {
+            var account = bankManager.resolvePrimaryAccount(playerUUID);
+            if (account == null) return failure(amount, 0, "Player has no account");
+            Economy.withdraw(account.getIban(), units);
+            return new EconomyResponse(units, account.getBalance(), ResponseType.SUCCESS, null);
+        } catch (InsufficientFundsException e) {
+            var account = accounts.get(playerUUID);
+            return failure(amount, account == null ? 0 : account.getBalance(), "Insufficient funds");
+        } catch (Exception e) {
+            return failure(amount, 0, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+        }
+    }
+
+    private EconomyResponse deposit(@Nullable UUID playerUUID, double amount) {
+        if (playerUUID == null) return failure(amount, 0, "Unknown player");
+        if (!Double.isFinite(amount) || amount < 0) return failure(amount, 0, "Cannot deposit a negative amount");
+        var units = (long) amount;
+        if (units != amount) return failure(amount, 0, String.format("Amounts must be whole %s", currencyPlural));
+        if (units == 0) return failure(amount, 0, "Cannot deposit nothing");
+
+        try {
+            var account = bankManager.resolvePrimaryAccount(playerUUID);
+            if (account == null) return failure(amount, 0, "Player has no account");
+            Economy.deposit(account.getIban(), units);
+            return new EconomyResponse(units, account.getBalance(), ResponseType.SUCCESS, null);
+        } catch (Exception e) {
+            return failure(amount, 0, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+        }
+    }
+
+    private boolean createAccount(@Nullable UUID playerUUID) {
+        if (playerUUID == null) return false;
+        try {
+            return bankManager.createPrimaryAccount(playerUUID);
+        } catch (IOException e) {
+            Minty.getInstance().LOGGER.warning(String.format("Failed to create the primary account of %s: %s", playerUUID, e.getMessage()));
+            return false;
+        }
+    }
+
+    private double balance(@Nullable UUID playerUUID) {
+        if (playerUUID == null) return 0;
+        var account = account(playerUUID);
+        return account == null ? 0 : account.getBalance();
+    }
+
+    private boolean has(@Nullable UUID playerUUID, double amount) {
+        return balance(playerUUID) >= amount;
+    }
+
+    private boolean hasAccount(@Nullable UUID playerUUID) {
+        return playerUUID != null && bankManager.hasPrimaryAccount(playerUUID);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return Minty.getInstance() != null && Minty.getInstance().isEnabled();
+    }
+
+    @Override
+    public String getName() {
+        return "Minty";
+    }
+
+    @Override
+    public boolean hasBankSupport() {
+        return false;
+    }
+
+    @Override
+    public int fractionalDigits() {
+        return 0;
+    }
+
+    @Override
+    public String format(double amount) {
+        var units = Math.round(amount);
+        return String.format("%,d %s", units, units == 1 ? currencySingular : currencyPlural);
+    }
+
+    @Override
+    public String currencyNamePlural() {
+        return currencyPlural;
+    }
+
+    @Override
+    public String currencyNameSingular() {
+        return currencySingular;
+    }
+
+    @Override
+    @Deprecated
+    public boolean hasAccount(String playerName) {
+        return hasAccount(uuid(playerName));
+    }
+
+    @Override
+    public boolean hasAccount(OfflinePlayer player) {
+        return hasAccount(player.getUniqueId());
+    }
+
+    @Override
+    @Deprecated
+    public boolean hasAccount(String playerName, String worldName) {
+        return hasAccount(uuid(playerName));
+    }
+
+    @Override
+    public boolean hasAccount(OfflinePlayer player, String worldName) {
+        return hasAccount(player.getUniqueId());
+    }
+
+    @Override
+    @Deprecated
+    public double getBalance(String playerName) {
+        return balance(uuid(playerName));
+    }
+
+    @Override
+    public double getBalance(OfflinePlayer player) {
+        return balance(player.getUniqueId());
+    }
+
+    @Override
+    @Deprecated
+    public double getBalance(String playerName, String world) {
+        return balance(uuid(playerName));
+    }
+
+    @Override
+    public double getBalance(OfflinePlayer player, String world) {
+        return balance(player.getUniqueId());
+    }
+
+    @Override
+    @Deprecated
+    public boolean has(String playerName, double amount) {
+        return has(uuid(playerName), amount);
+    }
+
+    @Override
+    public boolean has(OfflinePlayer player, double amount) {
+        return has(player.getUniqueId(), amount);
+    }
+
+    @Override
+    @Deprecated
+    public boolean has(String playerName, String worldName, double amount) {
+        return has(uuid(playerName), amount);
+    }
+
+    @Override
+    public boolean has(OfflinePlayer player, String worldName, double amount) {
+        return has(player.getUniqueId(), amount);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyResponse withdrawPlayer(String playerName, double amount) {
+        return withdraw(uuid(playerName), amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
+        return withdraw(player.getUniqueId(), amount);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyResponse withdrawPlayer(String playerName, String worldName, double amount) {
+        return withdraw(uuid(playerName), amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, String worldName, double amount) {
+        return withdraw(player.getUniqueId(), amount);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyResponse depositPlayer(String playerName, double amount) {
+        return deposit(uuid(playerName), amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+        return deposit(player.getUniqueId(), amount);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyResponse depositPlayer(String playerName, String worldName, double amount) {
+        return deposit(uuid(playerName), amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, String worldName, double amount) {
+        return deposit(player.getUniqueId(), amount);
+    }
+
+    @Override
+    @Deprecated
+    public boolean createPlayerAccount(String playerName) {
+        return createAccount(uuid(playerName));
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player) {
+        return createAccount(player.getUniqueId());
+    }
+
+    @Override
+    @Deprecated
+    public boolean createPlayerAccount(String playerName, String worldName) {
+        return createAccount(uuid(playerName));
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player, String worldName) {
+        return createAccount(player.getUniqueId());
+    }
+
+    private static EconomyResponse noBanks() {
+        return new EconomyResponse(0, 0, ResponseType.NOT_IMPLEMENTED, "Minty does not support Vault bank accounts");
+    }
+
+    @Override
+    @Deprecated
+    public EconomyResponse createBank(String name, String player) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse createBank(String name, OfflinePlayer player) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse deleteBank(String name) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse bankBalance(String name) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse bankHas(String name, double amount) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse bankWithdraw(String name, double amount) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse bankDeposit(String name, double amount) {
+        return noBanks();
+    }
+
+    @Override
+    @Deprecated
+    public EconomyResponse isBankOwner(String name, String playerName) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse isBankOwner(String name, OfflinePlayer player) {
+        return noBanks();
+    }
+
+    @Override
+    @Deprecated
+    public EconomyResponse isBankMember(String name, String playerName) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse isBankMember(String name, OfflinePlayer player) {
+        return noBanks();
+    }
+
+    @Override
+    public List<String> getBanks() {
+        return List.of();
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Minty (Minty.main): BankExporter.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager;
+
+import dev.vayen.mc.economy.bank.Bank;
+import dev.vayen.mc.economy.bank.BankCustomer;
+import dev.vayen.mc.economy.bank.BankLoan;
+import dev.vayen.mc.manager.storage.RecordKind;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+// One gzip member per bank; concatenated members form a single valid gzip file.
+public final class BankExporter {
+    private static final int PAGE_SIZE = 1024;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String CSV_HEADER = "type,bank,id,customer,iban,name,balance,max_debt,amount,amount_paid,interest_rate,duration_days,last_accrual_day\n";
+
+    private final BankManager bankManager;
+    private final Logger logger;
+
+    public BankExporter(BankManager bankManager, Logger logger) {
+        this.bankManager = bankManager;
+        this.logger = logger;
+    }
+
+    public enum Format {
+        JSONL, CSV
+    }
+
+    public Report export(Path target, Format format, int parallelism, int recordsPerSecond, Consumer<Report> progress) throws IOException {
+        for (var bank : bankManager.residentBanks()) bankManager.save(bank);
+
+        var banks = new ArrayList<>(bankManager.getStorage().banks());
+        banks.sort(Comparator.naturalOrder());
+        var parts = target.resolveSibling(target.getFileName() + ".parts");
+        Files.createDirectories(parts);
+
+        var counters = new Counters(System.nanoTime());
+        var throttle = new Throttle(recordsPerSecond);
+        var next = new AtomicInteger();
+        var workers = Math.clamp(parallelism, 1, Math.max(1, banks.size()));
+        try (var executor = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("Minty-Export-", 0).daemon(true).factory())) {
+            var futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int index = next.getAndIncrement(); index < banks.size(); index = next.getAndIncrement()) {
+                        var bankUUID = banks.get(index);
+                        try (var out = writer(parts.resolve(bankUUID + ".gz"))) {
+                            exportBank(bankUUID, format, out, throttle, counters);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            for (var future : futures) {
+                while (true) {
+                    try {
+                        future.get(1, TimeUnit.SECONDS);
+                        break;
+                    } catch (TimeoutException e) {
+                        progress.accept(counters.report());
+                    } catch (ExecutionException e) {
+                        next.set(banks.size());
+                        throw new IOException("Export failed: " + e.getCause().getMessage(), e.getCause());
+                    } catch (InterruptedException e) {
+                        next.set(banks.size());
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while exporting", e);
+                    }
+                }
+            }
+
+            assemble(target, parts, banks, format);
+        } finally {
+            deleteParts(parts);
+        }
+
+        var report = counters.report();
+        logger.info(String.format("Exported %d banks, %d customers and %d loans to %s in %d ms",
+                report.banks(), report.customers(), report.loans(), target.getFileName(), report.elapsed().toMillis()));
+        return report;
+    }
+
+    private void exportBank(UUID bankUUID, Format format, Writer out, Throttle throttle, Counters counters) throws IOException {
+        var bank = bankManager.getStorage().readBank(bankUUID, bankManager::decodeBank);
+        if (bank == null) return;
+        out.write(format == Format.JSONL ? json(bank) : csv(bank));
+        counters.banks.increment();
+
+        for (var kind : RecordKind.values()) {
+            bankManager.getStorage().peek(bankUUID, kind, records -> {
+                UUID after = null;
+                do {
+                    var page = new int[1];
+                    try {
+                        after = records.scan(after, PAGE_SIZE, (key, buffer) -> {
+                            try {
+                                if (kind == RecordKind.CUSTOMERS) {
+                                    var customer = bankManager.decodeCustomer(buffer);
+                                    out.write(format == Format.JSONL ? json(customer) : csv(customer));
+                                    counters.customers.increment();
+                                } else {
+                                    var loan = bankManager.decodeLoan(buffer);
+                                    out.write(format == Format.JSONL ? json(loan) : csv(loan));
+                                    counters.loans.increment();
+                                }
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            page[0]++;
+                        });
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    }
+                    throttle.acquire(page[0]);
+                } while (after != null);
+                return null;
+            });
+        }
+    }
+
+    private static Writer writer(Path path) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(path), BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static void assemble(Path target, Path parts, List<UUID> banks, Format format) throws IOException {
+        var temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (var out = new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE)) {
+            if (format == Format.CSV) {
+                var header = parts.resolve("header.gz");
+                try (var writer = writer(header)) {
+                    writer.write(CSV_HEADER);
+                }
+                Files.copy(header, out);
+            }
+            for (var bankUUID : banks) {
+                var part = parts.resolve(bankUUID + ".gz");
+                if (Files.exists(part)) Files.copy(part, out);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void deleteParts(Path parts) throws IOException {
+        if (!Files.isDirectory(parts)) return;
+        try (var files = Files.list(parts)) {
+            for (var file : files.toList()) Files.deleteIfExists(file);
+        }
+        Files.deleteIfExists(parts);
+    }
+
+    private static String json(Bank bank) {
+        return String.format("{\"type\":\"bank\",\"bank\":\"%s\",\"name\":%s,\"maxDebt\":%d}\n", bank.getUuid(), jsonString(bank.getName()), bank.getMaxDebt());
+    }
+
+    private static String json(BankCustomer customer) {
+        return String.format("{\"type\":\"customer\",\"bank\":\"%s\",\"customer\":\"%s\",\"iban\":\"%s\",\"balance\":%d}\n",
+                customer.getBankUUID(), customer.getPlayerUUID(), customer.getIban(), customer.getBalance());
+    }
+
+    private static String json(BankLoan loan) {
+        return String.format("{\"type\":\"loan\",\"bank\":\"%s\",\"id\":\"%s\",\"customer\":\"%s\",\"amount\":%d,\"amountPaid\":%d,\"interestRate\":%s,\"durationInDays\":%d,\"lastAccrualDay\":%d}\n",
+                loan.getBank(), loan.getUuid(), loan.getCustomerUUID(), loan.getAmount(), loan.getAmountPaid(), Float.toString(loan.getInterestRate()), loan.getDurationInDays(), loan.getLastAccrualDay());
+    }
+
+    private static String csv(Bank bank) {
+        return String.format("bank,%s,%s,,,%s,,%d,,,,,\n", bank.getUuid(), bank.getUuid(), csvField(bank.getName()), bank.getMaxDebt());
+    }
+
+    private static String csv(BankCustomer customer) {
+        return String.format("customer,%s,%s,%s,%s,,%d,,,,,,\n", customer.getBankUUID(), customer.getPlayerUUID(), customer.getPlayerUUID(), customer.getIban(), customer.getBalance());
+    }
+
+    private static String csv(BankLoan loan) {
+        return String.format("loan,%s,%s,%s,,,,,%d,%d,%s,%d,%d\n", loan.getBank(), loan.getUuid(), loan.getCustomerUUID(),
+                loan.getAmount(), loan.getAmountPaid(), Float.toString(loan.getInterestRate()), loan.getDurationInDays(), loan.getLastAccrualDay());
+    }
+
+    private static String jsonString(String value) {
+        var escaped = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                case '\t' -> escaped.append("\\t");
+                default -> {
+                    if (c < 0x20) escaped.append(String.format("\\u%04x", (int) c));
+                    else escaped.append(c);
+                }
+            }
+        }
+        return escaped.append('"').toString();
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static final class Throttle {
+        private final long nanosPerRecord;
+        private long next = System.nanoTime();
+
+        private Throttle(int recordsPerSecond) {
+            this.nanosPerRecord = recordsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / recordsPerSecond : 0;
+        }
+
+        void acquire(int records) throws IOException {
+            if (nanosPerRecord == 0 || records == 0) return;
+
+            long wait;
+            synchronized (this) {
+                var now = System.nanoTime();
+                next = Math.max(next, now) + records * nanosPerRecord;
+                wait = next - now - records * nanosPerRecord;
+            }
+            if (wait <= 0) return;
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while throttling the export");
+            }
+        }
+    }
+
+    private static final class Counters {
+        private final long start;
+        private final LongAdder banks = new LongAdder();
+        private final LongAdder customers = new LongAdder();
+        private final LongAdder loans = new LongAdder();
+
+        private Counters(long start) {
+            this.start = start;
+        }
+
+        Report report() {
+            return new Report(banks.sum(), customers.sum(), loans.sum(), Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    public record Report(long banks, long customers, long loans, Duration elapsed) {
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Minty (Minty.main): BankLoadingException.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager;
+
+import java.io.IOException;
+import java.util.UUID;
+
+public class BankLoadingException extends IOException {
+    public BankLoadingException(UUID bankUUID) {
+        super(String.format("Bank %s is still loading", bankUUID));
+    }
+}
@@ -17,170 +17,708 @@
 
 package dev.vayen.mc.manager;
 
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import dev.vayen.mc.Minty;
+import dev.vayen.mc.economy.Economy;
+import dev.vayen.mc.economy.PrimaryAccounts;
+import dev.vayen.mc.economy.TransactionType;
+import dev.vayen.mc.economy.bank.AccountStore;
 import dev.vayen.mc.economy.bank.Bank;
 import dev.vayen.mc.economy.bank.BankCustomer;
 import dev.vayen.mc.economy.bank.BankLoan;
-import org.bson.BsonBinaryReader;
-import org.bson.ByteBufNIO;
+import dev.vayen.mc.economy.bank.Persistable;
+import dev.vayen.mc.economy.bank.LazyRecords;
+import dev.vayen.mc.manager.storage.ObservedStorageEngine;
+import dev.vayen.mc.manager.storage.RecordKind;
+import dev.vayen.mc.manager.storage.RecordStore;
+import dev.vayen.mc.manager.storage.StorageEngine;
+import dev.vayen.mc.metrics.Metrics;
+import lombok.Getter;
+import lombok.Setter;
 import org.bson.codecs.Codec;
-import org.bson.io.ByteBufferBsonInput;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.logging.Logger;
 
 public class BankManager extends DataManager<Bank, UUID, BankManager.Params> {
-    private static final Codec<Bank> bankCodec = Minty.POJO_CODEC_REGISTRY.get(Bank.class);
-    private static final Codec<BankCustomer> customerCodec = Minty.POJO_CODEC_REGISTRY.get(BankCustomer.class);
-    private static final Codec<BankLoan> loanCodec = Minty.POJO_CODEC_REGISTRY.get(BankLoan.class);
+    private static final Codec<Bank> bankCodec = Minty.CODEC_REGISTRY.get(Bank.class);
+    private static final Codec<BankCustomer> customerCodec = Minty.CODEC_REGISTRY.get(BankCustomer.class);
+    private static final Codec<BankLoan> loanCodec = Minty.CODEC_REGISTRY.get(BankLoan.class);
 
-    private static final Pattern UUID_END_WITH_BSON_PATTERN = Pattern.compile("\\b[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[1-5][0-9a-fA-F]{3}-[89abAB][0-9a-fA-F]{3}-[0-9a-fA-F]{12}.bson\\b");
-    private static final Pattern UUID_PATTERN = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[1-5][0-9a-fA-F]{3}-[89abAB][0-9a-fA-F]{3}-[0-9a-fA-F]{12}");
+    private static final int PARALLEL_DECODE_THRESHOLD = 512;
 
+    private final Path dataFolder;
+    private final Logger logger;
+    @Getter
+    private final ObservedStorageEngine storage;
+    @Getter
     private final Cache<@NotNull String, BankCustomer> ibanToCustomerCache;
-
-    public BankManager(Cache<@NotNull UUID, Bank> cache, Cache<@NotNull String, BankCustomer> ibanToCustomerCache) {
-        this.cache = cache;
+    private final Map<UUID, Set<UUID>> playerBanks = new ConcurrentHashMap<>();
+    @Getter
+    private final PrimaryAccounts primaryAccounts = new PrimaryAccounts();
+    @Getter
+    private final TransactionJournal journal;
+    private final IbanIndex ibanIndex;
+    @Getter
+    private final AsyncLoadingCache<@NotNull UUID, Bank> banks;
+    private final ExecutorService cacheExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Minty-BankCache-", 0).factory());
+    private final Map<UUID, Bank> evicting = new ConcurrentHashMap<>();
+    private final Set<UUID> importing = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, TransactionLedger> ledgers = new ConcurrentHashMap<>();
+    private final LedgerWriter ledgerWriter;
+    @Setter
+    private TransactionLedger.Settings ledgerSettings = TransactionLedger.DEFAULT_SETTINGS;
+    private @Nullable SnapshotManager snapshots;
+    @Setter
+    private @Nullable AccountStore accountStore;
+    @Setter
+    private @Nullable LeaderboardManager leaderboards;
+
+    public BankManager(Path dataFolder, Logger logger, StorageEngine storage, long maximumWeight, Cache<@NotNull String, BankCustomer> ibanToCustomerCache, TransactionJournal journal) throws IOException {
+        this.dataFolder = dataFolder;
+        this.logger = logger;
+        this.storage = new ObservedStorageEngine(storage);
         this.ibanToCustomerCache = ibanToCustomerCache;
+        this.journal = journal;
+        this.ibanIndex = IbanIndex.open(dataFolder.resolve("iban.index"));
+        this.ledgerWriter = new LedgerWriter(this::ledger, logger);
+        this.banks = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((UUID uuid, Bank bank) -> 1 + bank.getCustomers().size() + bank.getLoans().size())
+                .executor(cacheExecutor)
+                .evictionListener((UUID uuid, Bank bank, RemovalCause cause) -> {
+                    if (uuid != null && bank != null) evicting.put(uuid, bank);
+                })
+                .removalListener(this::onRemoval)
+                .recordStats()
+                .buildAsync((uuid, executor) -> CompletableFuture.supplyAsync(() -> loadBank(uuid), executor));
+        this.cache = banks.synchronous();
+    }
+
+    private @Nullable Bank loadBank(UUID bankUUID) {
+        if (importing.contains(bankUUID)) return null;
+        var revived = evicting.remove(bankUUID);
+        if (revived != null) return revived;
+
+        var start = Metrics.BANK_LOAD.start();
+        try {
+            var loaded = readBank(new Params(bankUUID));
+            loaded.ifPresent(bank -> {
+                for (var playerUUID : bank.getCustomers().keys()) indexCustomer(playerUUID, bankUUID);
+            });
+            return loaded.orElse(null);
+        } finally {
+            Metrics.BANK_LOAD.stop(start);
+        }
+    }
+
+    private void onRemoval(@Nullable UUID bankUUID, @Nullable Bank bank, RemovalCause cause) {
+        if (!cause.wasEvicted() || bankUUID == null || bank == null) return;
+
+        try {
+            var result = save(bank);
+            if (result.records() > 0)
+                logger.info(String.format("Saved %d changed records of evicted Bank %s (%s)", result.records(), bank.getName(), bankUUID));
+        } catch (IOException e) {
+            logger.warning(String.format("Failed to save evicted Bank %s (%s): %s", bank.getName(), bankUUID, e.getMessage()));
+        }
+
+        if (!evicting.remove(bankUUID, bank)) return;
+        unindexBank(bank);
+        ibanToCustomerCache.asMap().entrySet().removeIf(entry -> entry.getValue().getBankUUID().equals(bankUUID));
+        releaseAccounts(bank.getCustomers().loaded());
+        try {
+            if (!banks.asMap().containsKey(bankUUID)) closeFiles(bankUUID);
+        } catch (IOException e) {
+            logger.warning(String.format("Failed to close data files of evicted Bank %s: %s", bankUUID, e.getMessage()));
+        }
+    }
+
+    Path getBanksFolderPath() {
+        return dataFolder.resolve("banks");
+    }
+
+    private Path generateLedgerPath(UUID bankUUID) {
+        return getBanksFolderPath().resolve(String.format("%s/ledger", bankUUID.toString()));
+    }
+
+    private void closeFiles(UUID bankUUID) throws IOException {
+        storage.closeBank(bankUUID);
+        ledgerWriter.flush().join();
+        var ledger = ledgers.remove(bankUUID);
+        if (ledger != null) ledger.close();
+    }
+
+    Collection<Bank> residentBanks() {
+        var resident = new HashMap<UUID, Bank>(evicting);
+        resident.putAll(cache.asMap());
+        return resident.values();
+    }
+
+    void forEachStored(UUID bankUUID, boolean loans, BiConsumer<UUID, ByteBuffer> consumer) throws IOException {
+        storage.peek(bankUUID, loans ? RecordKind.LOANS : RecordKind.CUSTOMERS, records -> {
+            records.forEach(consumer);
+            return null;
+        });
+    }
+
+    public @Nullable UUID scanStoredLoans(UUID bankUUID, @Nullable UUID after, int limit, Consumer<BankLoan> consumer) throws IOException {
+        return storage.peek(bankUUID, RecordKind.LOANS, records -> records.scan(after, limit, (key, buffer) -> consumer.accept(decodeRecord(loanCodec, buffer))));
+    }
+
+    public Map<UUID, String> ibansOf(UUID bankUUID, Collection<UUID> playerUUIDs) throws IOException {
+        var ibans = new HashMap<UUID, String>();
+        var bank = cache.getIfPresent(bankUUID);
+        if (bank != null) {
+            bank.getCustomers().prefetch(playerUUIDs);
+            for (var playerUUID : playerUUIDs) bank.getCustomer(playerUUID).ifPresent(customer -> ibans.put(playerUUID, customer.getIban()));
+            return ibans;
+        }
+
+        storage.peek(bankUUID, RecordKind.CUSTOMERS, records -> {
+            for (var playerUUID : playerUUIDs) {
+                var iban = records.read(playerUUID, buffer -> decode(customerCodec, buffer).getIban());
+                if (iban != null) ibans.put(playerUUID, iban);
+            }
+            return null;
+        });
+        return ibans;
+    }
+
+    public void saveStoredLoans(UUID bankUUID, Collection<BankLoan> loans) throws IOException {
+        if (loans.isEmpty()) return;
+
+        var batch = new HashMap<UUID, byte[]>();
+        for (var loan : loans) batch.put(loan.getUuid(), encode(loanCodec, loan));
+        storage.records(bankUUID, RecordKind.LOANS).putAll(batch);
+        if (!banks.asMap().containsKey(bankUUID) && !evicting.containsKey(bankUUID)) storage.closeBank(bankUUID);
+    }
+
+    public void setSnapshots(@Nullable SnapshotManager snapshots) {
+        this.snapshots = snapshots;
+        storage.setListener(snapshots);
+    }
+
+    FlushResult beginImport(UUID bankUUID) throws IOException {
+        if (!importing.add(bankUUID)) throw new IOException("Bank " + bankUUID + " is already being imported into");
+        try {
+            return unload(new Params(bankUUID));
+        } catch (IOException | RuntimeException e) {
+            importing.remove(bankUUID);
+            throw e;
+        }
+    }
+
+    void endImport(UUID bankUUID) {
+        importing.remove(bankUUID);
+    }
+
+    long allocateIban(UUID bankUUID, UUID playerUUID) throws IOException {
+        return ibanIndex.allocate(bankUUID, playerUUID);
+    }
+
+    void unindexAccount(UUID bankUUID, UUID playerUUID, long key) {
+        ibanIndex.remove(key, bankUUID, playerUUID);
     }
 
-    private Path generatePath(UUID uuid) {
-        return Minty.getInstance().getDataPath().resolve("banks").resolve(String.format("%s/general.bson", uuid.toString()));
+    void forEachStoredCustomer(UUID bankUUID, Consumer<BankCustomer> consumer) throws IOException {
+        forEachStored(bankUUID, false, (key, buffer) -> consumer.accept(decodeCustomer(buffer)));
     }
 
-    private Path getCustomerFolderPath(UUID bankUUID) {
-        return Minty.getInstance().getDataPath().resolve("banks").resolve(String.format("%s/customers/", bankUUID.toString()));
+    Bank decodeBank(ByteBuffer buffer) {
+        return decode(bankCodec, buffer);
     }
 
-    private Path generateCustomerPath(UUID bankUUID, UUID customerUUID) {
-        return Minty.getInstance().getDataPath().resolve("banks").resolve(String.format("%s/customers/%s.bson", bankUUID.toString(), customerUUID.toString()));
+    BankCustomer decodeCustomer(ByteBuffer buffer) {
+        return decode(customerCodec, buffer);
     }
 
-    private Path getLoanFolderPath(UUID bankUUID) {
-        return Minty.getInstance().getDataPath().resolve("banks").resolve(String.format("%s/loans/", bankUUID.toString()));
+    BankLoan decodeLoan(ByteBuffer buffer) {
+        return decode(loanCodec, buffer);
     }
 
-    private Path generateLoanPath(UUID bankUUID, UUID loanUUID) {
-        return Minty.getInstance().getDataPath().resolve("banks").resolve(String.format("%s/loans/%s.bson", bankUUID.toString(), loanUUID.toString()));
+    byte[] encodeBank(Bank bank) {
+        return encode(bankCodec, bank);
+    }
+
+    byte[] encodeCustomer(BankCustomer customer) {
+        return encode(customerCodec, customer);
+    }
+
+    byte[] encodeLoan(BankLoan loan) {
+        return encode(loanCodec, loan);
+    }
+
+    private TransactionLedger ledger(UUID bankUUID) throws IOException {
+        var ledger = ledgers.get(bankUUID);
+        if (ledger != null) return ledger;
+
+        synchronized (ledgers) {
+            ledger = ledgers.get(bankUUID);
+            if (ledger == null) {
+                ledger = TransactionLedger.open(generateLedgerPath(bankUUID), ledgerSettings);
+                ledgers.put(bankUUID, ledger);
+            }
+            return ledger;
+        }
+    }
+
+    public int migrateLegacyLayout() throws IOException {
+        return LegacyLayoutMigrator.migrate(getBanksFolderPath(), storage, logger);
+    }
+
+    public int rebuildIbanIndexIfNeeded() throws IOException {
+        if (!ibanIndex.needsRebuild()) return -1;
+
+        ibanIndex.clear();
+        var collisions = 0;
+        for (var bankUUID : storage.banks()) {
+            var colliding = new int[1];
+            try {
+                forEachStoredCustomer(bankUUID, customer -> {
+                    try {
+                        ibanIndex.put(IbanIndex.key(customer.getIban()), bankUUID, customer.getPlayerUUID());
+                    } catch (IbanCollisionException e) {
+                        logger.warning(e.getMessage());
+                        colliding[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            collisions += colliding[0];
+        }
+        ibanIndex.force();
+        if (collisions > 0)
+            logger.warning(String.format("%d stored accounts share an IBAN with another account and only resolve through their bank", collisions));
+        logger.info(String.format("Rebuilt the IBAN index with %d accounts", ibanIndex.size()));
+        return ibanIndex.size();
     }
 
     @Override
     public List<Bank> loadAllFromFile() throws IOException {
         var list = new ArrayList<Bank>();
-        try (var files = Files.list(Minty.getInstance().getDataPath().resolve("banks"))) {
-            files.filter(Files::isDirectory).filter(path -> UUID_PATTERN.matcher(path.getFileName().toString()).matches()).forEach(path -> {
-                try {
-                    loadFromFile(new Params(UUID.fromString(path.getParent().getFileName().toString()))).ifPresent(list::add);
-                } catch (IllegalArgumentException ignored) {
-                    Minty.getInstance().LOGGER.warning(String.format("Failed to load Bank %s (%s)", path.getFileName(), path.getParent()));
-                }
-            });
+        for (var bankUUID : storage.banks()) {
+            try {
+                loadFromFile(new Params(bankUUID, LoadMode.FULL)).ifPresent(list::add);
+            } catch (IllegalArgumentException ignored) {
+                logger.warning(String.format("Failed to load Bank %s (%s storage)", bankUUID, storage.name()));
+            }
         }
         return list;
     }
 
     @Override
-    public Optional<Bank> loadFromFile(Params params) {
-        var filePath = generatePath(params.bankUUID);
-        byte[] data;
+    public Optional<Bank> loadFromFile(Params params) throws IOException {
+        var future = banks.get(params.bankUUID);
+        if (!future.isDone() && Bukkit.getServer() != null && Bukkit.isPrimaryThread())
+            throw new BankLoadingException(params.bankUUID);
+
+        Bank bank;
         try {
-            data = Files.readAllBytes(filePath);
-        } catch (IOException e) {
+            bank = future.join();
+        } catch (CompletionException e) {
+            logger.warning(String.format("Failed to load Bank %s: %s", params.bankUUID, e.getCause()));
             return Optional.empty();
         }
+        return Optional.ofNullable(complete(bank, params.mode));
+    }
+
+    public CompletableFuture<Optional<Bank>> getAsync(Params params) {
+        return banks.get(params.bankUUID)
+                .thenApplyAsync(bank -> Optional.ofNullable(complete(bank, params.mode)), cacheExecutor)
+                .exceptionally(e -> {
+                    logger.warning(String.format("Failed to load Bank %s: %s", params.bankUUID, e.getCause()));
+                    return Optional.empty();
+                });
+    }
+
+    private @Nullable Bank complete(@Nullable Bank bank, LoadMode mode) {
+        if (bank != null && mode == LoadMode.FULL) {
+            bank.getCustomers().loadAll();
+            bank.getLoans().loadAll();
+        }
+        return bank;
+    }
 
+    private Optional<Bank> readBank(Params params) {
         Bank loaded;
-        try (var reader = new BsonBinaryReader(new ByteBufferBsonInput(new ByteBufNIO(ByteBuffer.wrap(data))))) {
-            loaded = bankCodec.decode(reader, null);
+        try {
+            loaded = storage.readBank(params.bankUUID, buffer -> decode(bankCodec, buffer));
+        } catch (IOException e) {
+            return Optional.empty();
         }
 
         if (loaded != null) {
-            cache.put(params.bankUUID, loaded);
+            loaded.markSaved(loaded.changeVersion());
 
+            RecordStore customers, loans;
             try {
-                loaded.setCustomers(loadList(getCustomerFolderPath(params.bankUUID), customerCodec, loaded));
-                loaded.getCustomers().forEach(customer -> ibanToCustomerCache.put(customer.getIban(), customer));
-            } catch (IOException ignored) {
-                Minty.getInstance().LOGGER.warning(String.format("Failed to load customers for Bank %s (%s)", loaded.getName(), loaded.getUuid()));
+                customers = storage.records(params.bankUUID, RecordKind.CUSTOMERS);
+                loans = storage.records(params.bankUUID, RecordKind.LOANS);
+            } catch (IOException e) {
+                logger.warning(String.format("Failed to open data files for Bank %s (%s): %s", loaded.getName(), loaded.getUuid(), e.getMessage()));
+                return Optional.empty();
             }
 
             try {
-                loaded.setLoans(loadList(getLoanFolderPath(params.bankUUID), loanCodec, loaded));
-            } catch (IOException e) {
-                Minty.getInstance().LOGGER.warning(String.format("Failed to load loans for Bank %s (%s)", loaded.getName(), loaded.getUuid()));
+                loaded.setCustomers(loadRecords(customers, customerCodec, BankCustomer::getPlayerUUID, decoded -> {
+                    var customer = adopt(decoded);
+                    ibanToCustomerCache.put(customer.getIban(), customer);
+                    primaryAccounts.offer(customer);
+                    return customer;
+                }, params.mode));
+            } catch (IOException | UncheckedIOException ignored) {
+                logger.warning(String.format("Failed to load customers for Bank %s (%s)", loaded.getName(), loaded.getUuid()));
+                loaded.setCustomers(new LazyRecords<>(BankCustomer::getPlayerUUID));
+            }
+
+            try {
+                loaded.setLoans(loadRecords(loans, loanCodec, BankLoan::getUuid, UnaryOperator.identity(), params.mode).withGroupIndex(BankLoan::getCustomerUUID));
+            } catch (IOException | UncheckedIOException e) {
+                logger.warning(String.format("Failed to load loans for Bank %s (%s)", loaded.getName(), loaded.getUuid()));
+                loaded.setLoans(new LazyRecords<>(BankLoan::getUuid).withGroupIndex(BankLoan::getCustomerUUID));
+            }
+
+            if (params.mode == LoadMode.LAZY && Bukkit.getServer() != null) {
+                var online = Bukkit.getOnlinePlayers().stream().map(Entity::getUniqueId).toList();
+                loaded.getCustomers().prefetch(online);
             }
         }
         return Optional.ofNullable(loaded);
     }
 
-    private <T> List<T> loadList(Path folderPath, Codec<T> codec, Bank bank) throws IOException {
-        final List<T> list = new ArrayList<>();
-        try (var files = Files.list(folderPath)) {
-            files.filter(Files::isRegularFile).filter(path -> UUID_END_WITH_BSON_PATTERN.matcher(path.getFileName().toString()).matches()).forEach(path -> {
-                byte[] fileData;
+    private <T extends Persistable> LazyRecords<T> loadRecords(RecordStore file, Codec<T> codec, Function<T, UUID> keyFunction, UnaryOperator<T> admit, LoadMode mode) throws IOException {
+        var records = new LazyRecords<T>(keyFunction, file.keys(), new LazyRecords.Loader<T>() {
+            @Override
+            public T load(UUID key) throws IOException {
+                return file.read(key, buffer -> decodeRecord(codec, buffer));
+            }
+
+            @Override
+            public void loadAll(Set<UUID> keys, BiConsumer<UUID, T> sink) throws IOException {
+                decodeParallel(file, codec, keys, sink);
+            }
+        }, admit);
+        if (mode == LoadMode.FULL) records.loadAll();
+        return records;
+    }
+
+    private <T extends Persistable> T decodeRecord(Codec<T> codec, ByteBuffer buffer) {
+        var data = decode(codec, buffer);
+        data.markSaved(data.changeVersion());
+        return data;
+    }
+
+    private <T extends Persistable> void decodeParallel(RecordStore file, Codec<T> codec, Set<UUID> keys, BiConsumer<UUID, T> sink) throws IOException {
+        if (keys.size() < PARALLEL_DECODE_THRESHOLD) {
+            file.forEach((key, buffer) -> {
+                if (keys.contains(key)) sink.accept(key, decodeRecord(codec, buffer));
+            });
+            return;
+        }
+
+        var slices = new ArrayList<Map.Entry<UUID, ByteBuffer>>(keys.size());
+        file.forEach((key, buffer) -> {
+            if (!keys.contains(key)) return;
+            var copy = new byte[buffer.remaining()];
+            buffer.get(buffer.position(), copy);
+            slices.add(Map.entry(key, ByteBuffer.wrap(copy)));
+        });
+
+        var chunkSize = Math.max(PARALLEL_DECODE_THRESHOLD, slices.size() / (Runtime.getRuntime().availableProcessors() * 4));
+        var futures = new ArrayList<Future<?>>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int from = 0; from < slices.size(); from += chunkSize) {
+                var chunk = slices.subList(from, Math.min(from + chunkSize, slices.size()));
+                futures.add(executor.submit(() -> {
+                    for (var slice : chunk) sink.accept(slice.getKey(), decodeRecord(codec, slice.getValue()));
+                }));
+            }
+
+            for (var future : futures) {
                 try {
-                    fileData = Files.readAllBytes(path);
-                } catch (IOException e) {
-                    Minty.getInstance().LOGGER.warning(String.format("Failed to read data file %s for Bank %s (%s)", path.toAbsolutePath(), bank.getName(), bank.getUuid()));
-                    return;
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IOException("Failed to decode records", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while decoding records", e);
                 }
+            }
+        }
+    }
 
-                try (var reader = new BsonBinaryReader(new ByteBufferBsonInput(new ByteBufNIO(ByteBuffer.wrap(fileData))))) {
-                    var data = codec.decode(reader, null);
-                    list.add(data);
-                }
-            });
+    public FlushResult save(Bank bank) throws IOException {
+        var start = Metrics.BANK_SAVE.start();
+        try {
+            return flush(bank);
+        } finally {
+            Metrics.BANK_SAVE.stop(start);
         }
-        return list;
     }
 
-    public synchronized void save(Bank bank) throws IOException {
+    private FlushResult flush(Bank bank) throws IOException {
         var bankUUID = bank.getUuid();
-        super.save(generatePath(bankUUID), bankCodec, bank);
+        var result = FlushResult.EMPTY;
+
+        synchronized (bank) {
+            if (bank.hasUnsavedChanges()) {
+                var version = bank.changeVersion();
+                var data = encodeShared(bankCodec, bank);
+                var bytes = data.remaining();
+                storage.writeBank(bankUUID, data);
+                result = result.plus(new FlushResult(1, bytes));
+                bank.markSaved(version);
+            }
+
+            var customers = storage.records(bankUUID, RecordKind.CUSTOMERS);
+            var loans = storage.records(bankUUID, RecordKind.LOANS);
+            result = result.plus(savePacked(customers, bank.getCustomers().loaded(), BankCustomer::getPlayerUUID, customerCodec));
+            result = result.plus(savePacked(loans, bank.getLoans().loaded(), BankLoan::getUuid, loanCodec));
 
-        for (var customer : bank.getCustomers()) {
-            super.save(generateCustomerPath(bankUUID, customer.getPlayerUUID()), customerCodec, customer);
+            customers.maintain();
+            loans.maintain();
         }
-        for (var loan : bank.getLoans()) {
-            super.save(generateLoanPath(bankUUID, loan.getUuid()), loanCodec, loan);
+        return result;
+    }
+
+    private <D extends Persistable> FlushResult savePacked(RecordStore file, Collection<D> records, Function<D, UUID> key, Codec<D> codec) throws IOException {
+        var saved = new ArrayList<D>();
+        var versions = new ArrayList<Long>();
+        var batch = new HashMap<UUID, byte[]>();
+        long bytes = 0;
+
+        for (var record : records) {
+            if (!record.hasUnsavedChanges()) continue;
+
+            versions.add(record.changeVersion());
+            var payload = encode(codec, record);
+            batch.put(key.apply(record), payload);
+            saved.add(record);
+            bytes += payload.length;
         }
+
+        file.putAll(batch);
+        for (int i = 0; i < saved.size(); i++) saved.get(i).markSaved(versions.get(i));
+        return new FlushResult(saved.size(), bytes);
     }
 
     public void delete(Params params) throws IOException {
-        super.delete(generatePath(params.bankUUID), params.bankUUID);
-        Files.deleteIfExists(getCustomerFolderPath(params.bankUUID));
-        Files.deleteIfExists(getLoanFolderPath(params.bankUUID));
+        if (snapshots != null) snapshots.recordDeletion(SnapshotManager.KIND_DELETE_BANK, params.bankUUID, params.bankUUID);
+        if (leaderboards != null) leaderboards.removeBank(params.bankUUID);
+        var bank = cache.getIfPresent(params.bankUUID);
+        if (bank != null) unindexBank(bank);
+        ibanIndex.removeBank(params.bankUUID);
+        ibanToCustomerCache.asMap().entrySet().removeIf(entry -> entry.getValue().getBankUUID().equals(params.bankUUID));
+        if (bank != null) releaseAccounts(bank.getCustomers().loaded());
+        closeFiles(params.bankUUID);
+        storage.deleteBank(params.bankUUID);
+        cache.invalidate(params.bankUUID);
+        var ledgerFolder = generateLedgerPath(params.bankUUID);
+        if (Files.isDirectory(ledgerFolder)) {
+            try (var files = Files.list(ledgerFolder)) {
+                for (var file : files.toList()) Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(ledgerFolder);
+        }
+        Files.deleteIfExists(ledgerFolder.getParent());
     }
 
-    public void unload(Params params) throws IOException {
-        super.unload(generatePath(params.bankUUID), bankCodec, params.bankUUID);
-        cache.invalidate(params.bankUUID);
-        ibanToCustomerCache.asMap().entrySet().removeIf(entry -> entry.getValue().getBankUUID().equals(params.bankUUID));
+    public FlushResult unload(Params params) throws IOException {
+        var start = Metrics.BANK_UNLOAD.start();
+        try {
+            var bank = cache.getIfPresent(params.bankUUID);
+            var result = bank == null ? FlushResult.EMPTY : save(bank);
+            cache.invalidate(params.bankUUID);
+            if (bank != null) unindexBank(bank);
+            ibanToCustomerCache.asMap().entrySet().removeIf(entry -> entry.getValue().getBankUUID().equals(params.bankUUID));
+            if (bank != null) releaseAccounts(bank.getCustomers().loaded());
+            closeFiles(params.bankUUID);
+            return result;
+        } finally {
+            Metrics.BANK_UNLOAD.stop(start);
+        }
+    }
+
+    // Never interrupts a save: that would close the pack file channels.
+    public FlushReport flushAll(Duration timeout, int parallelism) throws InterruptedException {
+        var targets = List.copyOf(cache.asMap().values());
+        var start = System.nanoTime();
+        var deadline = start + timeout.toNanos();
+        var executor = Executors.newFixedThreadPool(Math.max(1, parallelism), Thread.ofPlatform().name("Minty-Flush-", 0).daemon(true).factory());
+        var completion = new ExecutorCompletionService<FlushResult>(executor);
+        var pending = new HashMap<Future<FlushResult>, Bank>();
+        for (var bank : targets) pending.put(completion.submit(() -> save(bank)), bank);
+        executor.shutdown();
+
+        var result = FlushResult.EMPTY;
+        var flushed = new ArrayList<Bank>(targets.size());
+        var failed = new ArrayList<Bank>();
+        var nextReport = start + TimeUnit.SECONDS.toNanos(1);
+        while (!pending.isEmpty()) {
+            var remaining = deadline - System.nanoTime();
+            if (remaining <= 0) break;
+
+            var done = completion.poll(Math.min(remaining, TimeUnit.SECONDS.toNanos(1)), TimeUnit.NANOSECONDS);
+            if (done != null) {
+                var bank = pending.remove(done);
+                try {
+                    result = result.plus(done.get());
+                    flushed.add(bank);
+                } catch (ExecutionException e) {
+                    failed.add(bank);
+                    logger.warning(String.format("Failed to flush Bank %s (%s): %s", bank.getName(), bank.getUuid(), e.getCause()));
+                }
+            }
+
+            if (System.nanoTime() >= nextReport && !pending.isEmpty()) {
+                logger.info(String.format("Flushing banks: %d/%d done, %d records (%d bytes) written", flushed.size() + failed.size(), targets.size(), result.records(), result.bytes()));
+                nextReport += TimeUnit.SECONDS.toNanos(1);
+            }
+        }
+
+        for (var future : pending.keySet()) future.cancel(false);
+        while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+            logger.info("Waiting for bank flushes still writing past the deadline");
+        }
+        var unflushed = new ArrayList<Bank>(failed);
+        unflushed.addAll(pending.values());
+        return new FlushReport(targets.size(), flushed, unflushed, result, Duration.ofNanos(System.nanoTime() - start));
     }
 
     private String generateIban(UUID bankUUID, UUID playerUUID) {
-        long playerNum = Math.abs(playerUUID.getMostSignificantBits() % 1_000_00000);
-        long bankNum = Math.abs(bankUUID.getMostSignificantBits() % 1_000_00000);
-        return String.format("MC%08d%08d", bankNum, playerNum);
+        return IbanIndex.iban(IbanIndex.key(bankUUID, playerUUID));
+    }
+
+    private BankCustomer adopt(BankCustomer customer) {
+        var store = accountStore;
+        return store == null ? customer : store.adopt(customer);
+    }
+
+    private void releaseAccounts(Collection<BankCustomer> customers) {
+        for (var customer : customers) primaryAccounts.forget(customer);
+        var store = accountStore;
+        if (store == null || customers.isEmpty()) return;
+
+        for (var customer : List.copyOf(customers)) {
+            Economy.withAccountLocked(customer.getIban(), () -> {
+                store.release(customer);
+                return null;
+            });
+        }
     }
 
-    public void createCustomer(Bank bank, UUID playerUUID) {
-        var iban = generateIban(bank.getUuid(), playerUUID);
-        var customer = new BankCustomer(playerUUID, bank.getUuid(), iban, 0);
+    public void createCustomer(Bank bank, UUID playerUUID) throws IOException {
+        var key = ibanIndex.allocate(bank.getUuid(), playerUUID);
+        var iban = IbanIndex.iban(key);
+        var store = accountStore;
+        var customer = store == null || key != IbanIndex.key(bank.getUuid(), playerUUID)
+                ? BankCustomer.of(playerUUID, bank.getUuid(), iban, 0)
+                : store.create(playerUUID, bank.getUuid(), 0);
+        customer.markDirty();
         bank.addCustomer(customer);
         ibanToCustomerCache.put(iban, customer);
+        indexCustomer(playerUUID, bank.getUuid());
+        primaryAccounts.offer(customer);
+        if (leaderboards != null) leaderboards.update(customer);
+    }
+
+    public boolean createPrimaryAccount(UUID playerUUID) throws IOException {
+        var primaryBank = primaryAccounts.getPrimaryBank();
+        if (primaryBank == null) return false;
+
+        var bank = get(new Params(primaryBank));
+        if (bank.isEmpty()) return false;
+        if (!bank.get().getCustomers().contains(playerUUID)) createCustomer(bank.get(), playerUUID);
+        return true;
+    }
+
+    public boolean hasPrimaryAccount(UUID playerUUID) {
+        if (primaryAccounts.get(playerUUID) != null) return true;
+        if (primaryAccounts.isAbsent(playerUUID)) return false;
+
+        try {
+            var found = findPrimaryAccount(playerUUID);
+            if (!found) primaryAccounts.markAbsent(playerUUID);
+            return found;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private boolean findPrimaryAccount(UUID playerUUID) throws IOException {
+        var primaryBank = primaryAccounts.getPrimaryBank();
+        if (primaryBank == null) return playerBanks.containsKey(playerUUID) || storedBankOf(playerUUID) != null;
+        if (new IbanIndex.Location(primaryBank, playerUUID).equals(ibanIndex.get(IbanIndex.key(primaryBank, playerUUID)))) return true;
+        return storage.peek(primaryBank, RecordKind.CUSTOMERS, customers -> customers.contains(playerUUID));
+    }
+
+    public @Nullable PrimaryAccounts.Account resolvePrimaryAccount(UUID playerUUID) throws IOException {
+        var resolved = primaryAccounts.get(playerUUID);
+        if (resolved != null || primaryAccounts.isAbsent(playerUUID)) return resolved;
+
+        var primaryBank = primaryAccounts.getPrimaryBank();
+        var customer = primaryBank != null
+                ? get(new Params(primaryBank)).flatMap(bank -> bank.getCustomer(playerUUID))
+                : getCustomerByUUID(playerUUID);
+        if (customer.isEmpty() && primaryBank == null) {
+            var bankUUID = storedBankOf(playerUUID);
+            if (bankUUID != null) customer = get(new Params(bankUUID)).flatMap(bank -> bank.getCustomer(playerUUID));
+        }
+        if (customer.isEmpty()) {
+            primaryAccounts.markAbsent(playerUUID);
+            return null;
+        }
+        primaryAccounts.offer(customer.get());
+        return primaryAccounts.get(playerUUID);
     }
 
-    public void deleteCustomer(Bank bank, UUID playerUUID) {
+    public void deleteCustomer(Bank bank, UUID playerUUID) throws IOException {
+        // The tombstone has to be durable before the record goes, or a replay could resurrect the account
+        try {
+            journal.appendDeletion(bank.getUuid(), playerUUID).join();
+        } catch (CompletionException e) {
+            throw new IOException("Failed to journal deletion of " + playerUUID, e.getCause());
+        }
+        var removed = bank.getCustomer(playerUUID).orElse(null);
+        var iban = removed != null ? removed.getIban() : generateIban(bank.getUuid(), playerUUID);
         bank.removeCustomer(playerUUID);
-        ibanToCustomerCache.invalidate(generateIban(bank.getUuid(), playerUUID));
+        ibanIndex.remove(IbanIndex.key(iban), bank.getUuid(), playerUUID);
+        ibanToCustomerCache.invalidate(iban);
+        unindexCustomer(playerUUID, bank.getUuid());
+        storage.records(bank.getUuid(), RecordKind.CUSTOMERS).remove(playerUUID);
+        if (removed != null) releaseAccounts(List.of(removed));
+        if (snapshots != null) snapshots.recordDeletion(SnapshotManager.KIND_DELETE_CUSTOMER, bank.getUuid(), playerUUID);
+        if (leaderboards != null) leaderboards.remove(bank.getUuid(), iban);
+    }
+
+    public void deleteLoan(Bank bank, UUID loanUUID) throws IOException {
+        bank.removeLoan(loanUUID);
+        storage.records(bank.getUuid(), RecordKind.LOANS).remove(loanUUID);
+        if (snapshots != null) snapshots.recordDeletion(SnapshotManager.KIND_DELETE_LOAN, bank.getUuid(), loanUUID);
     }
 
     public void saveCustomer(Bank bank, UUID playerUUID, @Nullable BankCustomer customer) throws IOException {
@@ -189,28 +727,220 @@ public class BankManager extends DataManager<Bank, UUID, BankManager.Params> {
             if (customerOptional.isEmpty()) return;
             customer = customerOptional.get();
         }
-        super.save(generateCustomerPath(bank.getUuid(), playerUUID), customerCodec, customer);
+        savePacked(storage.records(bank.getUuid(), RecordKind.CUSTOMERS), List.of(customer), BankCustomer::getPlayerUUID, customerCodec);
+    }
+
+    public void beforeBalanceChange(BankCustomer customer) {
+        var current = snapshots;
+        if (current != null) current.preserve(customer);
+    }
+
+    public void recordBalance(BankCustomer customer) {
+        journal.append(customer);
+        primaryAccounts.record(customer);
+        if (leaderboards != null) leaderboards.update(customer);
+    }
+
+    public void recordTransaction(BankCustomer customer, TransactionType type, long delta, @Nullable String counterparty) {
+        var counterpartyKey = counterparty == null ? -1 : IbanIndex.key(counterparty);
+        ledgerWriter.append(customer.getBankUUID(), type, IbanIndex.key(customer.getIban()), counterpartyKey < 0 ? null : counterpartyKey, delta, customer.getBalance());
+    }
+
+    public List<TransactionLedger.Entry> history(String iban, int limit) throws IOException {
+        var key = IbanIndex.key(iban);
+        var location = key < 0 ? null : ibanIndex.get(key);
+        if (location == null) return List.of();
+        ledgerWriter.flush().join();
+        return ledger(location.bankUUID()).latest(key, limit);
     }
 
-    public Optional<BankCustomer> getCustomerByIban(String iban) {
-        return Optional.ofNullable(ibanToCustomerCache.getIfPresent(iban));
+    public List<TransactionLedger.Entry> statement(String iban, Instant from, Instant to) throws IOException {
+        var key = IbanIndex.key(iban);
+        var location = key < 0 ? null : ibanIndex.get(key);
+        if (location == null) return List.of();
+        ledgerWriter.flush().join();
+        return ledger(location.bankUUID()).range(key, from, to);
+    }
+
+    public void checkpoint() throws IOException {
+        ibanIndex.force();
+        ledgerWriter.flush().join();
+        for (var ledger : ledgers.values()) {
+            ledger.force();
+            ledger.expire();
+        }
+        var byBank = new HashMap<UUID, List<BankCustomer>>();
+        for (var customer : journal.rotate()) {
+            if (!customer.isLive() || !customer.hasUnsavedChanges()) continue;
+
+            var bank = cache.getIfPresent(customer.getBankUUID());
+            if (bank != null) {
+                var current = bank.getCustomers().peek(customer.getPlayerUUID());
+                if (current != null ? current != customer : !bank.getCustomers().contains(customer.getPlayerUUID())) continue;
+            }
+            byBank.computeIfAbsent(customer.getBankUUID(), k -> new ArrayList<>()).add(customer);
+        }
+
+        var failed = new ArrayList<BankCustomer>();
+        for (var entry : byBank.entrySet()) {
+            try {
+                savePacked(storage.records(entry.getKey(), RecordKind.CUSTOMERS), entry.getValue(), BankCustomer::getPlayerUUID, customerCodec);
+            } catch (IOException e) {
+                failed.addAll(entry.getValue());
+            }
+        }
+
+        if (!failed.isEmpty()) {
+            failed.forEach(journal::touch);
+            throw new IOException(String.format("Failed to checkpoint %d customers, keeping journal segments", failed.size()));
+        }
+        journal.discardSealed();
+    }
+
+    public void replayJournal() throws IOException {
+        var balances = new LinkedHashMap<UUID, Map<UUID, Long>>();
+        journal.replay(record -> balances.computeIfAbsent(record.bankUUID(), k -> new HashMap<>()).put(record.playerUUID(), record.deleted() ? null : record.balance()));
+
+        for (var bankEntry : balances.entrySet()) {
+            var bank = get(new Params(bankEntry.getKey()));
+            if (bank.isEmpty()) {
+                logger.warning(String.format("Dropping %d journaled balances for missing Bank %s", bankEntry.getValue().size(), bankEntry.getKey()));
+                continue;
+            }
+
+            var replayed = new ArrayList<BankCustomer>();
+            for (var balance : bankEntry.getValue().entrySet()) {
+                if (balance.getValue() == null) {
+                    if (bank.get().getCustomers().contains(balance.getKey())) deleteCustomer(bank.get(), balance.getKey());
+                    continue;
+                }
+                if (!bank.get().getCustomers().contains(balance.getKey())) createCustomer(bank.get(), balance.getKey());
+                var customer = bank.get().getCustomer(balance.getKey()).orElseThrow();
+                customer.setBalance(balance.getValue());
+                primaryAccounts.record(customer);
+                if (leaderboards != null) leaderboards.update(customer);
+                replayed.add(customer);
+            }
+            savePacked(storage.records(bankEntry.getKey(), RecordKind.CUSTOMERS), replayed, BankCustomer::getPlayerUUID, customerCodec);
+        }
+
+        journal.discardSealed();
+        if (!balances.isEmpty())
+            logger.info(String.format("Replayed journaled balances for %d banks", balances.size()));
+    }
+
+    public Optional<BankCustomer> getCustomerByIban(String iban) throws IOException {
+        var cached = ibanToCustomerCache.getIfPresent(iban);
+        if (cached != null) return Optional.of(cached);
+
+        var key = IbanIndex.key(iban);
+        if (key < 0) return Optional.empty();
+        var location = ibanIndex.get(key);
+        if (location == null) return Optional.empty();
+
+        var bank = get(new Params(location.bankUUID()));
+        if (bank.isEmpty()) return Optional.empty();
+
+        var customer = bank.get().getCustomer(location.playerUUID()).filter(found -> found.getIban().equals(iban));
+        customer.ifPresent(found -> ibanToCustomerCache.put(iban, found));
+        return customer;
     }
 
     public Optional<BankCustomer> getCustomerByUUID(UUID uuid) {
-        return cache.asMap().values().stream().flatMap(bank -> bank.getCustomers().stream()).filter(customer -> customer.getPlayerUUID().equals(uuid)).findFirst();
+        var banks = playerBanks.get(uuid);
+        if (banks == null) return Optional.empty();
+
+        for (var bankUUID : banks) {
+            var bank = cache.getIfPresent(bankUUID);
+            if (bank == null) continue;
+            var customer = bank.getCustomer(uuid);
+            if (customer.isPresent()) return customer;
+        }
+        return Optional.empty();
+    }
+
+    private @Nullable UUID storedBankOf(UUID playerUUID) throws IOException {
+        var banks = storage.banks();
+        for (var bankUUID : banks) {
+            if (new IbanIndex.Location(bankUUID, playerUUID).equals(ibanIndex.get(IbanIndex.key(bankUUID, playerUUID)))) return bankUUID;
+        }
+        for (var bankUUID : banks) {
+            if (storage.peek(bankUUID, RecordKind.CUSTOMERS, customers -> customers.contains(playerUUID))) return bankUUID;
+        }
+        return null;
+    }
+
+    public List<BankCustomer> getCustomersByUUID(UUID uuid) {
+        var banks = playerBanks.get(uuid);
+        if (banks == null) return List.of();
+
+        var customers = new ArrayList<BankCustomer>(banks.size());
+        for (var bankUUID : banks) {
+            var bank = cache.getIfPresent(bankUUID);
+            if (bank != null) bank.getCustomer(uuid).ifPresent(customers::add);
+        }
+        return customers;
+    }
+
+    private void indexCustomer(UUID playerUUID, UUID bankUUID) {
+        playerBanks.computeIfAbsent(playerUUID, k -> ConcurrentHashMap.newKeySet()).add(bankUUID);
+    }
+
+    private void unindexCustomer(UUID playerUUID, UUID bankUUID) {
+        playerBanks.computeIfPresent(playerUUID, (k, banks) -> {
+            banks.remove(bankUUID);
+            return banks.isEmpty() ? null : banks;
+        });
+    }
+
+    private void unindexBank(Bank bank) {
+        for (var playerUUID : bank.getCustomers().keys()) unindexCustomer(playerUUID, bank.getUuid());
     }
 
     @Override
-    public Map<String, Object> variables(Bank bank) {
+    public Map<String, Supplier<?>> variables(Bank bank) {
         return Map.of(
-                "bank.uuid", bank.getUuid(),
-                "bank.name", bank.getName(),
-                "bank.customers.size", bank.getCustomers().size(),
-                "bank.loans.size", bank.getLoans().size()
+                "bank.uuid", bank::getUuid,
+                "bank.name", bank::getName,
+                "bank.customers.size", () -> bank.getCustomers().size(),
+                "bank.loans.size", () -> bank.getLoans().size()
         );
     }
 
-    public record Params(UUID bankUUID) implements DataManager.Params<UUID> {
+    public void close() throws IOException {
+        try {
+            journal.close();
+        } finally {
+            ledgerWriter.close();
+            cacheExecutor.close();
+            for (var bankUUID : List.copyOf(ledgers.keySet())) {
+                var ledger = ledgers.remove(bankUUID);
+                if (ledger != null) ledger.close();
+            }
+            try {
+                ibanIndex.close();
+            } finally {
+                storage.close();
+            }
+        }
+    }
+
+    public record FlushReport(int banks, List<Bank> flushed, List<Bank> unflushed, FlushResult result, Duration elapsed) {
+        public boolean isComplete() {
+            return unflushed.isEmpty();
+        }
+    }
+
+    public enum LoadMode {
+        LAZY,
+        FULL
+    }
+
+    public record Params(UUID bankUUID, LoadMode mode) implements DataManager.Params<UUID> {
+        public Params(UUID bankUUID) {
+            this(bankUUID, LoadMode.LAZY);
+        }
+
         @Override
         public UUID getIdentifier() {
             return bankUUID;
@@ -18,22 +18,34 @@
 package dev.vayen.mc.manager;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import dev.vayen.mc.manager.storage.AtomicFiles;
 import lombok.Data;
+import org.bson.BsonBinaryReader;
 import org.bson.BsonBinaryWriter;
+import org.bson.ByteBufNIO;
 import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
 import org.bson.codecs.EncoderContext;
 import org.bson.io.BasicOutputBuffer;
+import org.bson.io.ByteBufferBsonInput;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Data
 public abstract class DataManager<T, ID, P extends DataManager.Params<ID>> {
+    private static final int MAX_POOLED_BUFFER = 1 << 20;
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+    private static final ThreadLocal<BasicOutputBuffer> ENCODE_BUFFERS = ThreadLocal.withInitial(() -> new BasicOutputBuffer(1024));
+
     protected Cache<@NotNull ID, T> cache;
 
     abstract public List<T> loadAllFromFile() throws IOException;
@@ -49,17 +61,38 @@ public abstract class DataManager<T, ID, P extends DataManager.Params<ID>> {
         return cached.isPresent() ? cached : loadFromFile(params);
     }
 
-    protected <D> void save(Path filePath, Codec<D> codec, D data) throws IOException {
-        Files.createDirectories(filePath.getParent());
-        if (!Files.exists(filePath)) Files.createFile(filePath);
+    protected <D> int save(Path filePath, Codec<D> codec, D data) throws IOException {
+        return AtomicFiles.write(filePath, encodeShared(codec, data));
+    }
+
+    protected <D> byte[] encode(Codec<D> codec, D data) {
+        return encodeBuffer(codec, data).toByteArray();
+    }
 
-        var buffer = new BasicOutputBuffer();
-        codec.encode(new BsonBinaryWriter(buffer), data, EncoderContext.builder().build());
-        var bytes = buffer.toByteArray();
+    protected <D> ByteBuffer encodeShared(Codec<D> codec, D data) {
+        return encodeBuffer(codec, data).getByteBuffers().getFirst().asNIO();
+    }
+
+    private <D> BasicOutputBuffer encodeBuffer(Codec<D> codec, D data) {
+        var buffer = ENCODE_BUFFERS.get();
+        if (buffer.getSize() > MAX_POOLED_BUFFER) {
+            buffer = new BasicOutputBuffer(1024);
+            ENCODE_BUFFERS.set(buffer);
+        }
+        buffer.truncateToPosition(0);
+        codec.encode(new BsonBinaryWriter(buffer), data, ENCODER_CONTEXT);
+        return buffer;
+    }
 
-        Files.write(filePath, bytes);
+    protected <D> D decode(Codec<D> codec, ByteBuffer data) {
+        try (var reader = new BsonBinaryReader(new ByteBufferBsonInput(new ByteBufNIO(data)))) {
+            return codec.decode(reader, DECODER_CONTEXT);
+        }
     }
 
+    protected <D> D load(Path filePath, Codec<D> codec) throws IOException {
+        return AtomicFiles.read(filePath, buffer -> decode(codec, buffer));
+    }
 
     protected void delete(Path filePath, ID identifier) throws IOException {
         Files.deleteIfExists(filePath);
@@ -74,9 +107,17 @@ public abstract class DataManager<T, ID, P extends DataManager.Params<ID>> {
         }
     }
 
-    abstract public Map<String, Object> variables(T data);
+    abstract public Map<String, Supplier<?>> variables(T data);
 
     protected interface Params<ID> {
         ID getIdentifier();
     }
+
+    public record FlushResult(int records, long bytes) {
+        public static final FlushResult EMPTY = new FlushResult(0, 0);
+
+        public FlushResult plus(FlushResult other) {
+            return new FlushResult(records + other.records, bytes + other.bytes);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,196 @@
+/*
+ * Minty (Minty.main): EssentialsImporter.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager;
+
+import dev.vayen.mc.economy.bank.BankCustomer;
+import dev.vayen.mc.manager.storage.RecordKind;
+import dev.vayen.mc.manager.storage.RecordStore;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+public final class EssentialsImporter {
+    private static final int BATCH_SIZE = 4096;
+    private static final Pattern USERDATA_PATTERN = Pattern.compile("([0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12})\\.yml");
+
+    private final BankManager bankManager;
+    private final @Nullable LeaderboardManager leaderboards;
+    private final Logger logger;
+
+    public EssentialsImporter(BankManager bankManager, @Nullable LeaderboardManager leaderboards, Logger logger) {
+        this.bankManager = bankManager;
+        this.leaderboards = leaderboards;
+        this.logger = logger;
+    }
+
+    public Report run(Path userdataFolder, UUID bankUUID, boolean dryRun, int parallelism, Consumer<Report> progress) throws IOException {
+        if (!Files.isDirectory(userdataFolder)) throw new IOException("No EssentialsX userdata folder at " + userdataFolder);
+        var storage = bankManager.getStorage();
+        if (storage.readBank(bankUUID, buffer -> Boolean.TRUE) == null) throw new IOException("No bank exists with UUID " + bankUUID);
+
+        if (!dryRun) bankManager.beginImport(bankUUID);
+        try {
+            return importAll(userdataFolder, bankUUID, dryRun, parallelism, progress);
+        } finally {
+            if (!dryRun) bankManager.endImport(bankUUID);
+        }
+    }
+
+    private Report importAll(Path userdataFolder, UUID bankUUID, boolean dryRun, int parallelism, Consumer<Report> progress) throws IOException {
+        var records = bankManager.getStorage().records(bankUUID, RecordKind.CUSTOMERS);
+        var counters = new Counters(System.nanoTime());
+
+        try (var files = Files.newDirectoryStream(userdataFolder, "*.yml");
+             var executor = Executors.newFixedThreadPool(Math.max(1, parallelism), Thread.ofPlatform().name("Minty-Import-", 0).daemon(true).factory())) {
+            var iterator = files.iterator();
+            var workers = new ArrayList<Future<?>>();
+            for (int i = 0; i < Math.max(1, parallelism); i++) {
+                workers.add(executor.submit(() -> {
+                    var batch = new HashMap<UUID, byte[]>();
+                    var claimed = new HashMap<UUID, Long>();
+                    while (true) {
+                        Path next;
+                        synchronized (iterator) {
+                            if (!iterator.hasNext()) break;
+                            next = iterator.next();
+                        }
+                        importFile(next, bankUUID, records, dryRun, batch, claimed, counters);
+                        if (batch.size() >= BATCH_SIZE) flush(bankUUID, records, batch, claimed);
+                    }
+                    flush(bankUUID, records, batch, claimed);
+                    return null;
+                }));
+            }
+
+            for (var worker : workers) {
+                while (true) {
+                    try {
+                        worker.get(1, TimeUnit.SECONDS);
+                        break;
+                    } catch (TimeoutException e) {
+                        progress.accept(counters.report());
+                    } catch (ExecutionException e) {
+                        throw new IOException("Import failed: " + e.getCause().getMessage(), e.getCause());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while importing", e);
+                    }
+                }
+            }
+        }
+
+        var report = counters.report();
+        if (!dryRun && report.imported() > 0) {
+            records.maintain();
+            if (leaderboards != null) leaderboards.rebuildBank(bankUUID);
+        }
+        logger.info(String.format("%s EssentialsX import into Bank %s: %d files, %d imported, %d skipped, %d failed, %d total balance in %d ms",
+                dryRun ? "Dry run of" : "Finished", bankUUID, report.scanned(), report.imported(), report.skipped(), report.failed(), report.amount(), report.elapsed().toMillis()));
+        return report;
+    }
+
+    private void importFile(Path path, UUID bankUUID, RecordStore records, boolean dryRun, Map<UUID, byte[]> batch, Map<UUID, Long> claimed, Counters counters) {
+        counters.scanned.increment();
+        var matcher = USERDATA_PATTERN.matcher(path.getFileName().toString());
+        if (!matcher.matches()) {
+            counters.skipped.increment();
+            return;
+        }
+
+        try {
+            var playerUUID = UUID.fromString(matcher.group(1));
+            var balance = readMoney(path);
+            if (balance == null || records.contains(playerUUID)) {
+                counters.skipped.increment();
+                return;
+            }
+
+            if (!dryRun) {
+                var key = bankManager.allocateIban(bankUUID, playerUUID);
+                claimed.put(playerUUID, key);
+                batch.put(playerUUID, bankManager.encodeCustomer(BankCustomer.of(playerUUID, bankUUID, IbanIndex.iban(key), balance)));
+            }
+            counters.imported.increment();
+            counters.amount.add(balance);
+        } catch (IOException | RuntimeException e) {
+            counters.failed.increment();
+            logger.warning(String.format("Failed to import %s: %s", path.getFileName(), e.getMessage()));
+        }
+    }
+
+    private void flush(UUID bankUUID, RecordStore records, Map<UUID, byte[]> batch, Map<UUID, Long> claimed) throws IOException {
+        if (batch.isEmpty()) return;
+        try {
+            records.putAll(batch);
+        } catch (IOException | RuntimeException e) {
+            for (var claim : claimed.entrySet()) bankManager.unindexAccount(bankUUID, claim.getKey(), claim.getValue());
+            throw e;
+        }
+        batch.clear();
+        claimed.clear();
+    }
+
+    private static @Nullable Long readMoney(Path path) throws IOException {
+        try (var reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("money:")) continue;
+                var value = line.substring("money:".length()).trim();
+                if (value.length() >= 2 && (value.charAt(0) == '\'' || value.charAt(0) == '"')) value = value.substring(1, value.length() - 1);
+                return new BigDecimal(value).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            }
+        }
+        return null;
+    }
+
+    private static final class Counters {
+        private final long start;
+        private final LongAdder scanned = new LongAdder();
+        private final LongAdder imported = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder amount = new LongAdder();
+
+        private Counters(long start) {
+            this.start = start;
+        }
+
+        Report report() {
+            return new Report(scanned.sum(), imported.sum(), skipped.sum(), failed.sum(), amount.sum(), Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    public record Report(long scanned, long imported, long skipped, long failed, long amount, Duration elapsed) {
+    }
+}
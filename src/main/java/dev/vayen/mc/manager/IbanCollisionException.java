@@ -0,0 +1,28 @@
+/*
+ * Minty (Minty.main): IbanCollisionException.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager;
+
+import java.io.IOException;
+import java.util.UUID;
+
+public class IbanCollisionException extends IOException {
+    public IbanCollisionException(String iban, UUID bankUUID, UUID playerUUID, IbanIndex.Location holder) {
+        super(String.format("IBAN %s of player %s in bank %s is already held by player %s in bank %s",
+                iban, playerUUID, bankUUID, holder.playerUUID(), holder.bankUUID()));
+    }
+}
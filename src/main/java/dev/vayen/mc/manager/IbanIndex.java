@@ -0,0 +1,365 @@
+/*
+ * Minty (Minty.main): IbanIndex.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.nio.file.StandardOpenOption.*;
+
+// Layout: header (magic, version, capacity, size, tombstones, clean) | slots of (key + 1, bank uuid, player uuid).
+// Key 0 marks an empty slot and -1 a removed one. The table doubles once live and removed slots pass half the capacity.
+public class IbanIndex implements Closeable {
+    private static final int MAGIC = 0x4D4E4958;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int SLOT_SIZE = Long.BYTES * 5;
+    private static final int INITIAL_CAPACITY = 1 << 12;
+    private static final int MAX_CAPACITY = 1 << 25;
+    private static final long EMPTY = 0;
+    private static final long REMOVED = -1;
+    private static final long NUMBER_RANGE = 1_000_00000;
+
+    private final Path path;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final boolean recovered;
+    private FileChannel channel;
+    private MappedByteBuffer table;
+    private int capacity;
+    private int size;
+    private int tombstones;
+
+    private IbanIndex(Path path, boolean recovered) {
+        this.path = path;
+        this.recovered = recovered;
+    }
+
+    public static IbanIndex open(Path path) throws IOException {
+        Files.createDirectories(path.getParent());
+        var existed = Files.exists(path) && Files.size(path) >= HEADER_SIZE;
+        var channel = FileChannel.open(path, CREATE, READ, WRITE);
+        try {
+            var header = ByteBuffer.allocate(HEADER_SIZE);
+            if (existed) {
+                while (header.hasRemaining() && channel.read(header, header.position()) != -1) {
+                }
+            }
+            var valid = existed && header.getInt(0) == MAGIC && header.getInt(4) == VERSION;
+            var index = new IbanIndex(path, !valid || header.getInt(20) != 1);
+            index.channel = channel;
+            if (valid) {
+                index.capacity = header.getInt(8);
+                index.size = header.getInt(12);
+                index.tombstones = header.getInt(16);
+                index.table = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) index.capacity * SLOT_SIZE);
+            } else {
+                index.reset(INITIAL_CAPACITY);
+            }
+            index.table.putInt(20, 0);
+            index.table.force();
+            return index;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static long ibanNumber(UUID uuid) {
+        return Math.abs(uuid.getMostSignificantBits() % NUMBER_RANGE);
+    }
+
+    public static long key(UUID bankUUID, UUID playerUUID) {
+        return ibanNumber(bankUUID) * NUMBER_RANGE + ibanNumber(playerUUID);
+    }
+
+    public static String iban(long key) {
+        var chars = new byte[18];
+        chars[0] = 'M';
+        chars[1] = 'C';
+        for (int i = chars.length - 1; i >= 2; i--) {
+            chars[i] = (byte) ('0' + key % 10);
+            key /= 10;
+        }
+        return new String(chars, StandardCharsets.ISO_8859_1);
+    }
+
+    public static long key(String iban) {
+        if (iban.length() != 18 || !iban.startsWith("MC")) return -1;
+        try {
+            return Long.parseLong(iban, 2, 10, 10) * NUMBER_RANGE + Long.parseLong(iban, 10, 18, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public boolean needsRebuild() {
+        return recovered;
+    }
+
+    public @Nullable Location get(long key) {
+        lock.readLock().lock();
+        try {
+            var stored = key + 1;
+            var mask = capacity - 1;
+            for (int slot = mix(key) & mask, probes = 0; probes < capacity; slot = (slot + 1) & mask, probes++) {
+                var offset = offset(slot);
+                var current = table.getLong(offset);
+                if (current == EMPTY) return null;
+                if (current == stored) {
+                    return new Location(new UUID(table.getLong(offset + 8), table.getLong(offset + 16)), new UUID(table.getLong(offset + 24), table.getLong(offset + 32)));
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(long key, UUID bankUUID, UUID playerUUID) throws IOException {
+        lock.writeLock().lock();
+        try {
+            ensureCapacity();
+            insert(key, bankUUID, playerUUID);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long allocate(UUID bankUUID, UUID playerUUID) throws IOException {
+        lock.writeLock().lock();
+        try {
+            ensureCapacity();
+            var bankPart = ibanNumber(bankUUID) * NUMBER_RANGE;
+            var playerPart = ibanNumber(playerUUID);
+            for (long probe = 0; probe < NUMBER_RANGE; probe++) {
+                var key = bankPart + (playerPart + probe) % NUMBER_RANGE;
+                var slot = find(key);
+                if (slot < 0) {
+                    insert(key, bankUUID, playerUUID);
+                    return key;
+                }
+                var offset = offset(slot);
+                if (readUUID(offset + 8).equals(bankUUID) && readUUID(offset + 24).equals(playerUUID)) return key;
+            }
+            throw new IOException("No free IBAN left in the range of bank " + bankUUID);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long key, UUID bankUUID, UUID playerUUID) {
+        lock.writeLock().lock();
+        try {
+            var slot = find(key);
+            if (slot < 0) return;
+            var offset = offset(slot);
+            if (!readUUID(offset + 8).equals(bankUUID) || !readUUID(offset + 24).equals(playerUUID)) return;
+
+            table.putLong(offset, REMOVED);
+            size--;
+            tombstones++;
+            writeCounts();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int removeBank(UUID bankUUID) {
+        lock.writeLock().lock();
+        try {
+            int removed = 0;
+            for (int slot = 0; slot < capacity; slot++) {
+                var offset = offset(slot);
+                var current = table.getLong(offset);
+                if (current == EMPTY || current == REMOVED || !readUUID(offset + 8).equals(bankUUID)) continue;
+
+                table.putLong(offset, REMOVED);
+                removed++;
+            }
+            size -= removed;
+            tombstones += removed;
+            writeCounts();
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() throws IOException {
+        lock.writeLock().lock();
+        try {
+            reset(INITIAL_CAPACITY);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void force() {
+        lock.readLock().lock();
+        try {
+            table.force();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureCapacity() throws IOException {
+        if ((size + tombstones + 1) * 2L > capacity) resize(size * 2L + 2 > capacity ? capacity * 2 : capacity);
+    }
+
+    private int find(long key) {
+        var stored = key + 1;
+        var mask = capacity - 1;
+        for (int slot = mix(key) & mask, probes = 0; probes < capacity; slot = (slot + 1) & mask, probes++) {
+            var current = table.getLong(offset(slot));
+            if (current == EMPTY) return -1;
+            if (current == stored) return slot;
+        }
+        return -1;
+    }
+
+    private void insert(long key, UUID bankUUID, UUID playerUUID) throws IbanCollisionException {
+        var stored = key + 1;
+        var mask = capacity - 1;
+        int target = -1;
+        for (int slot = mix(key) & mask, probes = 0; probes < capacity; slot = (slot + 1) & mask, probes++) {
+            var offset = offset(slot);
+            var current = table.getLong(offset);
+            if (current == stored) {
+                var holder = new Location(readUUID(offset + 8), readUUID(offset + 24));
+                if (holder.bankUUID().equals(bankUUID) && holder.playerUUID().equals(playerUUID)) return;
+                throw new IbanCollisionException(iban(key), bankUUID, playerUUID, holder);
+            }
+            if (current == REMOVED && target < 0) target = slot;
+            if (current == EMPTY) {
+                if (target < 0) {
+                    target = slot;
+                    size++;
+                } else {
+                    size++;
+                    tombstones--;
+                }
+                break;
+            }
+        }
+
+        var offset = offset(target);
+        table.putLong(offset + 8, bankUUID.getMostSignificantBits()).putLong(offset + 16, bankUUID.getLeastSignificantBits())
+                .putLong(offset + 24, playerUUID.getMostSignificantBits()).putLong(offset + 32, playerUUID.getLeastSignificantBits());
+        table.putLong(offset, stored);
+        writeCounts();
+    }
+
+    private void resize(int newCapacity) throws IOException {
+        if (newCapacity > MAX_CAPACITY) throw new IOException("IBAN index is full: " + path);
+
+        var temp = path.resolveSibling(path.getFileName() + ".resize");
+        var oldTable = table;
+        var oldCapacity = capacity;
+
+        try (var out = FileChannel.open(temp, CREATE, TRUNCATE_EXISTING, READ, WRITE)) {
+            var newTable = out.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) newCapacity * SLOT_SIZE);
+            table = newTable;
+            capacity = newCapacity;
+            size = 0;
+            tombstones = 0;
+            writeHeader();
+
+            for (int slot = 0; slot < oldCapacity; slot++) {
+                var offset = HEADER_SIZE + (long) slot * SLOT_SIZE;
+                var current = oldTable.getLong((int) offset);
+                if (current == EMPTY || current == REMOVED) continue;
+                insert(current - 1,
+                        new UUID(oldTable.getLong((int) offset + 8), oldTable.getLong((int) offset + 16)),
+                        new UUID(oldTable.getLong((int) offset + 24), oldTable.getLong((int) offset + 32)));
+            }
+            newTable.force();
+        }
+
+        channel.close();
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        channel = FileChannel.open(path, READ, WRITE);
+        table = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+    }
+
+    private void reset(int newCapacity) throws IOException {
+        channel.truncate(0);
+        capacity = newCapacity;
+        size = 0;
+        tombstones = 0;
+        table = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+        writeHeader();
+    }
+
+    private void writeHeader() {
+        table.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, capacity);
+        writeCounts();
+    }
+
+    private void writeCounts() {
+        table.putInt(12, size).putInt(16, tombstones);
+    }
+
+    private UUID readUUID(int offset) {
+        return new UUID(table.getLong(offset), table.getLong(offset + 8));
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static int mix(long key) {
+        var hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            table.putInt(20, 1);
+            table.force();
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public record Location(UUID bankUUID, UUID playerUUID) {
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Minty (Minty.main): LeaderboardManager.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager;
+
+import dev.vayen.mc.economy.Leaderboard;
+import dev.vayen.mc.economy.bank.BankCustomer;
+import dev.vayen.mc.manager.storage.AtomicFiles;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+// Layout: magic, version, bank count | per bank: bank, truncated, entry count, (player, iban key, balance)...
+public class LeaderboardManager {
+    private static final int MAGIC = 0x4D4E4C42;
+    private static final int VERSION = 2;
+
+    private final Path file;
+    private final BankManager bankManager;
+    private final Logger logger;
+    private final int size;
+    private final Map<UUID, Leaderboard> banks = new ConcurrentHashMap<>();
+    @Getter
+    private final Leaderboard global;
+    private final Map<String, Change> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean dirty;
+
+    public LeaderboardManager(Path file, BankManager bankManager, Logger logger, int size) throws IOException {
+        this.file = file;
+        this.bankManager = bankManager;
+        this.logger = logger;
+        this.size = size;
+        this.global = new Leaderboard(size);
+        load();
+        bankManager.setLeaderboards(this);
+    }
+
+    public @Nullable Leaderboard bank(UUID bankUUID) {
+        return banks.get(bankUUID);
+    }
+
+    public List<Leaderboard.Entry> top(@Nullable UUID bankUUID, int k) {
+        var board = bankUUID == null ? global : banks.get(bankUUID);
+        return board == null ? List.of() : board.top(k);
+    }
+
+    public void update(BankCustomer customer) {
+        note(new Change(customer.getBankUUID(), customer.getIban(), Leaderboard.Entry.of(customer)));
+    }
+
+    public void remove(UUID bankUUID, String iban) {
+        note(new Change(bankUUID, iban, null));
+    }
+
+    public synchronized void removeBank(UUID bankUUID) {
+        pending.values().removeIf(change -> change.bankUUID().equals(bankUUID));
+        banks.remove(bankUUID);
+        global.removeBank(bankUUID);
+        dirty = true;
+    }
+
+    private void note(Change change) {
+        pending.put(change.iban(), change);
+        if (draining.compareAndSet(false, true)) Thread.ofVirtual().name("Minty-Leaderboards").start(this::drain);
+    }
+
+    private void drain() {
+        do {
+            applyPending();
+            draining.set(false);
+        } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    private synchronized void applyPending() {
+        for (var iban : pending.keySet()) {
+            var change = pending.remove(iban);
+            if (change != null) apply(change);
+        }
+    }
+
+    private void apply(Change change) {
+        var entry = change.entry();
+        if (entry == null) {
+            var board = banks.get(change.bankUUID());
+            if (board != null) board.remove(change.iban());
+            global.remove(change.iban());
+        } else {
+            banks.computeIfAbsent(change.bankUUID(), k -> new Leaderboard(size)).update(entry);
+            global.update(entry);
+        }
+        dirty = true;
+    }
+
+    public int rebuildMissing() throws IOException {
+        int rebuilt = 0;
+        for (var bankUUID : bankManager.getStorage().banks()) {
+            if (banks.containsKey(bankUUID)) continue;
+            rebuild(bankUUID);
+            rebuilt++;
+        }
+        if (rebuilt > 0) {
+            rebuildGlobal();
+            logger.info(String.format("Built leaderboards for %d banks", rebuilt));
+        }
+        return rebuilt;
+    }
+
+    public void rebuildBank(UUID bankUUID) throws IOException {
+        rebuild(bankUUID);
+        rebuildGlobal();
+    }
+
+    public void maintain() throws IOException {
+        var rebuiltAny = false;
+        for (var entry : banks.entrySet()) {
+            if (!entry.getValue().needsRebuild()) continue;
+            rebuild(entry.getKey());
+            rebuiltAny = true;
+        }
+        if (rebuiltAny || global.needsRebuild()) rebuildGlobal();
+        if (dirty) save();
+    }
+
+    private void rebuild(UUID bankUUID) throws IOException {
+        var board = new Leaderboard(size);
+        bankManager.forEachStoredCustomer(bankUUID, customer -> board.update(Leaderboard.Entry.of(customer)));
+        bankManager.getCached(bankUUID).ifPresent(bank -> {
+            for (var customer : bank.getCustomers().loaded()) {
+                if (customer.isLive()) board.update(Leaderboard.Entry.of(customer));
+            }
+        });
+        banks.put(bankUUID, board);
+        dirty = true;
+    }
+
+    private void rebuildGlobal() {
+        var entries = new ArrayList<Leaderboard.Entry>();
+        var truncated = false;
+        for (var board : banks.values()) {
+            entries.addAll(board.kept());
+            truncated |= board.isTruncated();
+        }
+        global.reset(entries, truncated);
+        dirty = true;
+    }
+
+    public void save() throws IOException {
+        applyPending();
+        dirty = false;
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            var boards = Map.copyOf(banks);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(boards.size());
+            for (var entry : boards.entrySet()) {
+                var kept = entry.getValue().kept();
+                out.writeLong(entry.getKey().getMostSignificantBits());
+                out.writeLong(entry.getKey().getLeastSignificantBits());
+                out.writeBoolean(entry.getValue().isTruncated());
+                out.writeInt(kept.size());
+                for (var ranked : kept) {
+                    out.writeLong(ranked.playerUUID().getMostSignificantBits());
+                    out.writeLong(ranked.playerUUID().getLeastSignificantBits());
+                    out.writeLong(IbanIndex.key(ranked.iban()));
+                    out.writeLong(ranked.balance());
+                }
+            }
+        } catch (IOException e) {
+            dirty = true;
+            throw e;
+        }
+        AtomicFiles.write(file, ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(file)) return;
+        try {
+            AtomicFiles.read(file, buffer -> {
+                if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                    logger.warning("Ignoring leaderboards in an unknown format; they are rebuilt from storage");
+                    return null;
+                }
+                for (int bank = buffer.getInt(); bank > 0; bank--) {
+                    var bankUUID = new UUID(buffer.getLong(), buffer.getLong());
+                    var truncated = buffer.get() != 0;
+                    var entries = new ArrayList<Leaderboard.Entry>();
+                    for (int entry = buffer.getInt(); entry > 0; entry--) {
+                        var playerUUID = new UUID(buffer.getLong(), buffer.getLong());
+                        entries.add(new Leaderboard.Entry(bankUUID, playerUUID, IbanIndex.iban(buffer.getLong()), buffer.getLong()));
+                    }
+                    var board = new Leaderboard(size);
+                    board.reset(entries, truncated);
+                    banks.put(bankUUID, board);
+                }
+                return null;
+            });
+        } catch (NoSuchFileException ignored) {
+            return;
+        }
+        rebuildGlobal();
+        dirty = false;
+    }
+
+    public Map<String, Supplier<?>> variables(@Nullable UUID bankUUID, int positions) {
+        var variables = new HashMap<String, Supplier<?>>();
+        for (int position = 1; position <= positions; position++) {
+            var index = position - 1;
+            Supplier<Optional<Leaderboard.Entry>> at = () -> {
+                var top = top(bankUUID, index + 1);
+                return top.size() > index ? Optional.of(top.get(index)) : Optional.empty();
+            };
+            variables.put("top." + position + ".iban", () -> at.get().map(Leaderboard.Entry::iban).orElse("-"));
+            variables.put("top." + position + ".player", () -> at.get().map(Leaderboard.Entry::playerUUID).map(Object::toString).orElse("-"));
+            variables.put("top." + position + ".balance", () -> at.get().map(Leaderboard.Entry::balance).map(Object::toString).orElse("-"));
+        }
+        return variables;
+    }
+
+    private record Change(UUID bankUUID, String iban, Leaderboard.@Nullable Entry entry) {
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Minty (Minty.main): LedgerSegment.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static java.nio.file.StandardOpenOption.*;
+
+// Layout: header (magic, version, capacity, count, first time, last time) | records of (time, account, counterparty, delta, balance, type).
+// The open segment keeps its per-account row lists in memory; sealing writes them sorted by (account, row) into a sibling .idx file.
+final class LedgerSegment implements Closeable {
+    static final int RECORD_SIZE = Long.BYTES * 6;
+    private static final int MAGIC = 0x4D4E4C47;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int INDEX_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+
+    final long number;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer records;
+    private final int capacity;
+    private int count;
+    private long firstTime;
+    private long lastTime;
+    private Map<Long, Rows> openRows;
+    private ByteBuffer index;
+    private int indexCount;
+
+    private LedgerSegment(long number, Path path, FileChannel channel, MappedByteBuffer records, int capacity) {
+        this.number = number;
+        this.path = path;
+        this.channel = channel;
+        this.records = records;
+        this.capacity = capacity;
+    }
+
+    static LedgerSegment create(Path path, long number, int capacity) throws IOException {
+        var channel = FileChannel.open(path, CREATE_NEW, READ, WRITE);
+        var records = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+        records.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, capacity).putInt(12, 0);
+        var segment = new LedgerSegment(number, path, channel, records, capacity);
+        segment.openRows = new HashMap<>();
+        return segment;
+    }
+
+    static LedgerSegment open(Path path, long number, boolean active) throws IOException {
+        var channel = FileChannel.open(path, READ, WRITE);
+        try {
+            var header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) throw new IOException("Not a Minty ledger segment: " + path);
+            var capacity = header.getInt(8);
+            var records = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+            var segment = new LedgerSegment(number, path, channel, records, capacity);
+            segment.count = records.getInt(12);
+            segment.firstTime = records.getLong(16);
+            segment.lastTime = records.getLong(24);
+
+            if (active) segment.rebuildOpenRows();
+            else segment.loadIndex();
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    boolean isFull() {
+        return count >= capacity;
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long firstTime() {
+        return firstTime;
+    }
+
+    long lastTime() {
+        return lastTime;
+    }
+
+    void append(long time, long account, long counterparty, long delta, long balance, int type) {
+        var offset = offset(count);
+        records.putLong(offset, time).putLong(offset + 8, account).putLong(offset + 16, counterparty)
+                .putLong(offset + 24, delta).putLong(offset + 32, balance).putLong(offset + 40, type);
+        openRows.computeIfAbsent(account, key -> new Rows()).add(count);
+        if (count == 0) {
+            firstTime = time;
+            records.putLong(16, time);
+        }
+        lastTime = time;
+        records.putLong(24, time);
+        records.putInt(12, ++count);
+    }
+
+    long time(int row) {
+        return records.getLong(offset(row));
+    }
+
+    long account(int row) {
+        return records.getLong(offset(row) + 8);
+    }
+
+    long counterparty(int row) {
+        return records.getLong(offset(row) + 16);
+    }
+
+    long delta(int row) {
+        return records.getLong(offset(row) + 24);
+    }
+
+    long balance(int row) {
+        return records.getLong(offset(row) + 32);
+    }
+
+    int type(int row) {
+        return (int) records.getLong(offset(row) + 40);
+    }
+
+    int[] rows(long account) {
+        if (openRows != null) {
+            var rows = openRows.get(account);
+            return rows == null ? new int[0] : Arrays.copyOf(rows.data, rows.size);
+        }
+
+        int low = 0, high = indexCount;
+        while (low < high) {
+            var mid = (low + high) >>> 1;
+            if (index.getLong(mid * INDEX_ENTRY_SIZE) < account) low = mid + 1;
+            else high = mid;
+        }
+        var end = low;
+        while (end < indexCount && index.getLong(end * INDEX_ENTRY_SIZE) == account) end++;
+
+        var rows = new int[end - low];
+        for (int i = low; i < end; i++) rows[i - low] = index.getInt(i * INDEX_ENTRY_SIZE + Long.BYTES);
+        return rows;
+    }
+
+    void seal() throws IOException {
+        records.force();
+        writeIndex();
+        openRows = null;
+        loadIndex();
+    }
+
+    void force() {
+        records.force();
+    }
+
+    private void rebuildOpenRows() {
+        openRows = new HashMap<>();
+        for (int row = 0; row < count; row++) openRows.computeIfAbsent(account(row), key -> new Rows()).add(row);
+    }
+
+    private Path indexPath() {
+        return path.resolveSibling(path.getFileName() + ".idx");
+    }
+
+    private void writeIndex() throws IOException {
+        var accounts = new long[count];
+        for (int row = 0; row < count; row++) accounts[row] = account(row);
+        var order = IntStream.range(0, count).boxed()
+                .sorted((a, b) -> accounts[a] != accounts[b] ? Long.compare(accounts[a], accounts[b]) : Integer.compare(a, b))
+                .mapToInt(Integer::intValue).toArray();
+
+        var buffer = ByteBuffer.allocate(Integer.BYTES + count * INDEX_ENTRY_SIZE).putInt(count);
+        for (var row : order) buffer.putLong(accounts[row]).putInt(row);
+        buffer.flip();
+
+        var temp = indexPath().resolveSibling(indexPath().getFileName() + ".tmp");
+        try (var out = FileChannel.open(temp, CREATE, TRUNCATE_EXISTING, WRITE)) {
+            while (buffer.hasRemaining()) out.write(buffer);
+            out.force(true);
+        }
+        Files.move(temp, indexPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void loadIndex() throws IOException {
+        if (!Files.exists(indexPath())) writeIndex();
+
+        try (var in = FileChannel.open(indexPath(), READ)) {
+            var mapped = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            indexCount = mapped.getInt(0);
+            index = mapped.slice(Integer.BYTES, indexCount * INDEX_ENTRY_SIZE);
+        }
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(indexPath());
+        Files.deleteIfExists(path);
+    }
+
+    private static int offset(int row) {
+        return HEADER_SIZE + row * RECORD_SIZE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        records.force();
+        channel.close();
+    }
+
+    private static final class Rows {
+        private int[] data = new int[4];
+        private int size;
+
+        private void add(int row) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = row;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Minty (Minty.main): LedgerWriter.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager;
+
+import dev.vayen.mc.economy.TransactionType;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+final class LedgerWriter implements AutoCloseable {
+    private static final int MAX_BATCH = 4096;
+
+    private final LedgerSource ledgers;
+    private final Logger logger;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    LedgerWriter(LedgerSource ledgers, Logger logger) {
+        this.ledgers = ledgers;
+        this.logger = logger;
+        writer = Thread.ofPlatform().name("Minty-Ledger").daemon().start(this::writeLoop);
+    }
+
+    void append(UUID bankUUID, TransactionType type, long account, @Nullable Long counterparty, long delta, long balance) {
+        queue.add(new Pending(bankUUID, System.currentTimeMillis(), type, account, counterparty, delta, balance, null));
+    }
+
+    CompletableFuture<Void> flush() {
+        var done = new CompletableFuture<Void>();
+        if (!running) done.complete(null);
+        else queue.add(new Pending(null, 0, null, 0, null, 0, 0, done));
+        return done;
+    }
+
+    private void writeLoop() {
+        var batch = new ArrayList<Pending>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+            } catch (InterruptedException e) {
+                if (!running) continue;
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            for (var pending : batch) {
+                if (pending.done != null) pending.done.complete(null);
+                else write(pending);
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(Pending pending) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                ledgers.ledger(pending.bankUUID).append(pending.time, pending.type, pending.account, pending.counterparty, pending.delta, pending.balance);
+                return;
+            } catch (IOException e) {
+                if (attempt == 1)
+                    logger.warning(String.format("Failed to record %s of %d in the ledger of Bank %s: %s", pending.type, pending.delta, pending.bankUUID, e.getMessage()));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    interface LedgerSource {
+        TransactionLedger ledger(UUID bankUUID) throws IOException;
+    }
+
+    private record Pending(UUID bankUUID, long time, TransactionType type, long account, @Nullable Long counterparty, long delta, long balance,
+                           @Nullable CompletableFuture<Void> done) {
+    }
+}
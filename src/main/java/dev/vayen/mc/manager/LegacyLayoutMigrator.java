@@ -0,0 +1,106 @@
+/*
+ * Minty (Minty.main): LegacyLayoutMigrator.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager;
+
+import dev.vayen.mc.manager.storage.RecordKind;
+import dev.vayen.mc.manager.storage.RecordStore;
+import dev.vayen.mc.manager.storage.StorageEngine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+final class LegacyLayoutMigrator {
+    private static final Pattern UUID_PATTERN = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[1-5][0-9a-fA-F]{3}-[89abAB][0-9a-fA-F]{3}-[0-9a-fA-F]{12}");
+    private static final Pattern UUID_END_WITH_BSON_PATTERN = Pattern.compile("\\b[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[1-5][0-9a-fA-F]{3}-[89abAB][0-9a-fA-F]{3}-[0-9a-fA-F]{12}.bson\\b");
+    private static final int BATCH_SIZE = 1024;
+
+    private LegacyLayoutMigrator() {
+    }
+
+    static int migrate(Path banksFolder, StorageEngine storage, Logger logger) throws IOException {
+        if (!Files.isDirectory(banksFolder)) return 0;
+
+        List<Path> bankFolders;
+        try (var files = Files.list(banksFolder)) {
+            bankFolders = files.filter(Files::isDirectory).filter(path -> UUID_PATTERN.matcher(path.getFileName().toString()).matches()).toList();
+        }
+
+        int migrated = 0;
+        for (var bankFolder : bankFolders) {
+            var bankUUID = UUID.fromString(bankFolder.getFileName().toString());
+            var general = bankFolder.resolve("general.bson");
+            if (Files.isRegularFile(general) && storage.readBank(bankUUID, buffer -> Boolean.TRUE) == null) {
+                storage.writeBank(bankUUID, ByteBuffer.wrap(Files.readAllBytes(general)));
+                migrated++;
+            }
+
+            var customers = bankFolder.resolve("customers");
+            var loans = bankFolder.resolve("loans");
+            if (!Files.isDirectory(customers) && !Files.isDirectory(loans)) continue;
+
+            migrated += migrateFolder(customers, storage.records(bankUUID, RecordKind.CUSTOMERS));
+            migrated += migrateFolder(loans, storage.records(bankUUID, RecordKind.LOANS));
+            storage.closeBank(bankUUID);
+        }
+
+        if (migrated > 0) logger.info(String.format("Migrated %d records into %s storage", migrated, storage.name()));
+        return migrated;
+    }
+
+    private static int migrateFolder(Path folder, RecordStore pack) throws IOException {
+        if (!Files.isDirectory(folder)) return 0;
+
+        List<Path> records;
+        try (var files = Files.list(folder)) {
+            records = files.filter(Files::isRegularFile).filter(path -> UUID_END_WITH_BSON_PATTERN.matcher(path.getFileName().toString()).matches()).toList();
+        }
+
+        int migrated = 0;
+        var batch = new HashMap<UUID, byte[]>();
+        for (var path : records) {
+            var name = path.getFileName().toString();
+            var key = UUID.fromString(name.substring(0, name.length() - ".bson".length()));
+            // A record already in the store was written after an interrupted migration and is newer.
+            if (pack.contains(key)) continue;
+
+            batch.put(key, Files.readAllBytes(path));
+            if (batch.size() >= BATCH_SIZE) {
+                pack.putAll(batch);
+                migrated += batch.size();
+                batch.clear();
+            }
+        }
+        pack.putAll(batch);
+        migrated += batch.size();
+        pack.maintain();
+
+        for (var path : records) Files.deleteIfExists(path);
+        try {
+            Files.deleteIfExists(folder);
+        } catch (IOException ignored) {
+        }
+        return migrated;
+    }
+}
@@ -0,0 +1,575 @@
+/*
+ * Minty (Minty.main): SnapshotManager.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager;
+
+import dev.vayen.mc.economy.Economy;
+import dev.vayen.mc.economy.bank.Bank;
+import dev.vayen.mc.economy.bank.BankCustomer;
+import dev.vayen.mc.economy.bank.Persistable;
+import dev.vayen.mc.manager.storage.ObservedStorageEngine;
+import dev.vayen.mc.manager.storage.RecordKind;
+import dev.vayen.mc.manager.storage.RecordStore;
+import dev.vayen.mc.manager.storage.StorageEngine;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.file.StandardOpenOption.*;
+
+// Layout (gzip): header (magic, version, id, full, cut version, created) | entries of (kind, bank, key, length, payload)... | end marker.
+public class SnapshotManager implements ObservedStorageEngine.Listener {
+    static final byte KIND_BANK = 0;
+    static final byte KIND_CUSTOMER = 1;
+    static final byte KIND_LOAN = 2;
+    static final byte KIND_DELETE_BANK = 3;
+    static final byte KIND_DELETE_CUSTOMER = 4;
+    static final byte KIND_DELETE_LOAN = 5;
+    private static final byte KIND_END = -1;
+    private static final int MAGIC = 0x4D4E5353;
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int RESTORE_BATCH = 4096;
+    private static final String PENDING_RESTORE = "restore.pending";
+    private static final Pattern SNAPSHOT_PATTERN = Pattern.compile("(\\d{10})\\.snapshot\\.gz");
+
+    private final Path folder;
+    private final BankManager bankManager;
+    private final Logger logger;
+    private final int fullRetention;
+    private final Queue<Deletion> deletions = new ConcurrentLinkedQueue<>();
+    private final Set<UUID> savedBanks = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Set<UUID>> savedCustomers = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<UUID>> savedLoans = new ConcurrentHashMap<>();
+    private final Map<Account, Preserved> preserved = new ConcurrentHashMap<>();
+    private volatile boolean tracking;
+    private volatile long openCut = -1;
+    private long lastCut = -1;
+    private long nextId;
+
+    public SnapshotManager(Path folder, BankManager bankManager, Logger logger, int fullRetention) throws IOException {
+        this.folder = folder;
+        this.bankManager = bankManager;
+        this.logger = logger;
+        this.fullRetention = Math.max(1, fullRetention);
+        Files.createDirectories(folder);
+        var ids = ids(folder);
+        this.nextId = ids.isEmpty() ? 1 : ids.getLast() + 1;
+        bankManager.setSnapshots(this);
+    }
+
+    void preserve(BankCustomer customer) {
+        if (openCut < 0) return;
+        preserved.computeIfAbsent(new Account(customer.getBankUUID(), customer.getPlayerUUID()), k -> new Preserved(
+                BankCustomer.of(customer.getPlayerUUID(), customer.getBankUUID(), customer.getIban(), customer.getBalance()), customer.changeVersion()));
+    }
+
+    void recordDeletion(byte kind, UUID bankUUID, UUID key) {
+        if (tracking) deletions.add(new Deletion(kind, bankUUID, key));
+    }
+
+    @Override
+    public void bankWritten(UUID bankUUID) {
+        if (tracking) savedBanks.add(bankUUID);
+    }
+
+    @Override
+    public void recordsWritten(UUID bankUUID, RecordKind kind, Set<UUID> keys) {
+        if (tracking) (kind == RecordKind.CUSTOMERS ? savedCustomers : savedLoans).computeIfAbsent(bankUUID, k -> ConcurrentHashMap.newKeySet()).addAll(keys);
+    }
+
+    public synchronized Info snapshot(boolean forceFull) throws IOException {
+        var start = System.nanoTime();
+        tracking = true;
+        var full = forceFull || lastCut < 0;
+        var since = lastCut;
+
+        var id = nextId;
+        var path = path(folder, id);
+        var temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Cut cut;
+        int records;
+        try {
+            long version;
+            Drained drained;
+            try (var ignored = bankManager.getStorage().pin()) {
+                version = Economy.withAllAccountsLocked(() -> openCut = Persistable.currentVersion());
+                drained = drain();
+            }
+            cut = capture(full, since, version, drained);
+            try (var out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp, CREATE, TRUNCATE_EXISTING, WRITE), BUFFER_SIZE)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(id);
+                out.writeBoolean(full);
+                out.writeLong(cut.version());
+                out.writeLong(System.currentTimeMillis());
+                records = write(out, cut, full);
+                out.writeByte(KIND_END);
+            }
+            try (var channel = FileChannel.open(temp, WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | UncheckedIOException e) {
+            Files.deleteIfExists(temp);
+            lastCut = -1;
+            throw e instanceof UncheckedIOException unchecked ? unchecked.getCause() : (IOException) e;
+        } finally {
+            openCut = -1;
+            preserved.clear();
+        }
+
+        lastCut = cut.version();
+        nextId = id + 1;
+        if (full) prune();
+        return new Info(id, full, records, Files.size(path), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private Drained drain() {
+        var deletions = new ArrayList<Deletion>();
+        for (Deletion deletion; (deletion = this.deletions.poll()) != null; ) deletions.add(deletion);
+        var saved = new Saved(Set.copyOf(savedBanks), new HashMap<>(savedCustomers), new HashMap<>(savedLoans));
+        savedBanks.clear();
+        savedCustomers.clear();
+        savedLoans.clear();
+        return new Drained(deletions, saved);
+    }
+
+    private Cut capture(boolean full, long since, long version, Drained drained) {
+        var banks = List.copyOf(bankManager.residentBanks());
+        var encoded = new ArrayList<Encoded>();
+        var customers = new ArrayList<BankCustomer>();
+        for (var bank : banks) {
+            var bankUUID = bank.getUuid();
+            if (full || bank.changeVersion() > since) encoded.add(new Encoded(KIND_BANK, bankUUID, bankUUID, bankManager.encodeBank(bank)));
+            for (var customer : bank.getCustomers().loaded()) {
+                var atCut = atCut(customer);
+                if (atCut.version() <= version && (full || atCut.version() > since)) customers.add(atCut.customer());
+            }
+            for (var loan : bank.getLoans().loaded()) {
+                if (!full && loan.changeVersion() <= since) continue;
+                synchronized (loan) {
+                    encoded.add(new Encoded(KIND_LOAN, bankUUID, loan.getUuid(), bankManager.encodeLoan(loan)));
+                }
+            }
+        }
+        return new Cut(version, banks, encoded, customers, drained.deletions(), drained.saved());
+    }
+
+    // A change preserves before it sets, so a balance read before finding nothing preserved is still the one at the cut.
+    private Preserved atCut(BankCustomer customer) {
+        var account = new Account(customer.getBankUUID(), customer.getPlayerUUID());
+        var kept = preserved.get(account);
+        if (kept != null) return kept;
+
+        var current = new Preserved(BankCustomer.of(customer.getPlayerUUID(), customer.getBankUUID(), customer.getIban(), customer.getBalance()), customer.changeVersion());
+        kept = preserved.get(account);
+        return kept != null ? kept : current;
+    }
+
+    private int write(DataOutputStream out, Cut cut, boolean full) throws IOException {
+        int records = 0;
+        var scratch = new byte[BUFFER_SIZE];
+        for (var deletion : cut.deletions()) {
+            writeEntry(out, deletion.kind(), deletion.bankUUID(), deletion.key(), new byte[0]);
+            records++;
+        }
+
+        var writtenBanks = new HashSet<UUID>();
+        var writtenCustomers = new HashMap<UUID, Set<UUID>>();
+        var writtenLoans = new HashMap<UUID, Set<UUID>>();
+        for (var customer : cut.customers()) {
+            writeEntry(out, KIND_CUSTOMER, customer.getBankUUID(), customer.getPlayerUUID(), bankManager.encodeCustomer(customer));
+            writtenCustomers.computeIfAbsent(customer.getBankUUID(), k -> new HashSet<>()).add(customer.getPlayerUUID());
+            records++;
+        }
+        for (var entry : cut.encoded()) {
+            writeEntry(out, entry.kind(), entry.bankUUID(), entry.key(), entry.payload());
+            if (entry.kind() == KIND_BANK) writtenBanks.add(entry.bankUUID());
+            else writtenLoans.computeIfAbsent(entry.bankUUID(), k -> new HashSet<>()).add(entry.key());
+            records++;
+        }
+
+        if (!full) return records + writeSaved(out, cut.saved(), writtenBanks, writtenCustomers, writtenLoans);
+
+        var resident = new HashSet<UUID>();
+        for (var bank : cut.banks()) {
+            var bankUUID = bank.getUuid();
+            resident.add(bankUUID);
+            var customerKeys = writtenCustomers.getOrDefault(bankUUID, Set.of());
+            var loanKeys = writtenLoans.getOrDefault(bankUUID, Set.of());
+            try (var ignored = bankManager.getStorage().pin()) {
+                records += writeStored(out, bankUUID, false, key -> !customerKeys.contains(key), scratch);
+                records += writeStored(out, bankUUID, true, key -> !loanKeys.contains(key), scratch);
+            }
+        }
+        return records + writeDormant(out, resident, scratch);
+    }
+
+    private int writeDormant(DataOutputStream out, Set<UUID> resident, byte[] scratch) throws IOException {
+        var storage = bankManager.getStorage();
+        int records = 0;
+        for (var bankUUID : storage.banks()) {
+            if (resident.contains(bankUUID)) continue;
+            try (var ignored = storage.pin()) {
+                var general = storage.readBank(bankUUID, SnapshotManager::bytes);
+                if (general == null) continue;
+
+                writeEntry(out, KIND_BANK, bankUUID, bankUUID, general);
+                records++;
+                records += writeStored(out, bankUUID, false, key -> true, scratch);
+                records += writeStored(out, bankUUID, true, key -> true, scratch);
+            }
+        }
+        return records;
+    }
+
+    private int writeSaved(DataOutputStream out, Saved saved, Set<UUID> writtenBanks, Map<UUID, Set<UUID>> writtenCustomers, Map<UUID, Set<UUID>> writtenLoans) throws IOException {
+        var storage = bankManager.getStorage();
+        var stored = storage.banks();
+        int records = 0;
+        for (var bankUUID : saved.banks()) {
+            if (writtenBanks.contains(bankUUID) || !stored.contains(bankUUID)) continue;
+            byte[] general;
+            try (var ignored = storage.pin()) {
+                general = storage.readBank(bankUUID, SnapshotManager::bytes);
+            }
+            if (general == null) continue;
+            writeEntry(out, KIND_BANK, bankUUID, bankUUID, general);
+            records++;
+        }
+        records += writeSavedRecords(out, RecordKind.CUSTOMERS, saved.customers(), writtenCustomers, stored);
+        records += writeSavedRecords(out, RecordKind.LOANS, saved.loans(), writtenLoans, stored);
+        return records;
+    }
+
+    private int writeSavedRecords(DataOutputStream out, RecordKind kind, Map<UUID, Set<UUID>> saved, Map<UUID, Set<UUID>> written, Set<UUID> stored) throws IOException {
+        var entryKind = kind == RecordKind.CUSTOMERS ? KIND_CUSTOMER : KIND_LOAN;
+        int records = 0;
+        for (var bank : saved.entrySet()) {
+            var bankUUID = bank.getKey();
+            if (!stored.contains(bankUUID)) continue;
+            var skip = written.getOrDefault(bankUUID, Set.of());
+            try (var ignored = bankManager.getStorage().pin()) {
+                records += bankManager.getStorage().peek(bankUUID, kind, store -> {
+                    int count = 0;
+                    for (var key : bank.getValue()) {
+                        if (skip.contains(key)) continue;
+                        var kept = kind == RecordKind.CUSTOMERS ? preserved.get(new Account(bankUUID, key)) : null;
+                        var payload = kept != null ? bankManager.encodeCustomer(kept.customer()) : store.read(key, SnapshotManager::bytes);
+                        if (payload == null) continue;
+                        writeEntry(out, entryKind, bankUUID, key, payload);
+                        count++;
+                    }
+                    return count;
+                });
+            }
+        }
+        return records;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        var bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private int writeStored(DataOutputStream out, UUID bankUUID, boolean loans, Predicate<UUID> wanted, byte[] scratch) throws IOException {
+        var written = new int[1];
+        try {
+            bankManager.forEachStored(bankUUID, loans, (key, buffer) -> {
+                if (!wanted.test(key)) return;
+                try {
+                    var kept = loans ? null : preserved.get(new Account(bankUUID, key));
+                    if (kept != null) writeEntry(out, KIND_CUSTOMER, bankUUID, key, bankManager.encodeCustomer(kept.customer()));
+                    else writeEntry(out, loans ? KIND_LOAN : KIND_CUSTOMER, bankUUID, key, buffer, scratch);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                written[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return written[0];
+    }
+
+    private static void writeEntry(DataOutputStream out, byte kind, UUID bankUUID, UUID key, byte[] payload) throws IOException {
+        writeEntryHeader(out, kind, bankUUID, key, payload.length);
+        out.write(payload);
+    }
+
+    private static void writeEntry(DataOutputStream out, byte kind, UUID bankUUID, UUID key, ByteBuffer payload, byte[] scratch) throws IOException {
+        writeEntryHeader(out, kind, bankUUID, key, payload.remaining());
+        while (payload.hasRemaining()) {
+            var length = Math.min(scratch.length, payload.remaining());
+            payload.get(scratch, 0, length);
+            out.write(scratch, 0, length);
+        }
+    }
+
+    private static void writeEntryHeader(DataOutputStream out, byte kind, UUID bankUUID, UUID key, int length) throws IOException {
+        out.writeByte(kind);
+        out.writeLong(bankUUID.getMostSignificantBits());
+        out.writeLong(bankUUID.getLeastSignificantBits());
+        out.writeLong(key.getMostSignificantBits());
+        out.writeLong(key.getLeastSignificantBits());
+        out.writeInt(length);
+    }
+
+    private void prune() throws IOException {
+        var ids = ids(folder);
+        var fulls = new ArrayList<Long>();
+        for (var id : ids) {
+            if (header(path(folder, id)).full()) fulls.add(id);
+        }
+        if (fulls.size() <= fullRetention) return;
+
+        var oldestKept = fulls.get(fulls.size() - fullRetention);
+        for (var id : ids) {
+            if (id < oldestKept) Files.deleteIfExists(path(folder, id));
+        }
+    }
+
+    public List<Header> list() throws IOException {
+        var headers = new ArrayList<Header>();
+        for (var id : ids(folder)) headers.add(header(path(folder, id)));
+        return headers;
+    }
+
+    public void requestRestore(long id) throws IOException {
+        chain(folder, id);
+        Files.writeString(folder.resolve(PENDING_RESTORE), Long.toString(id));
+    }
+
+    public static boolean restorePending(Path dataFolder, String engine, Logger logger) throws IOException {
+        var folder = dataFolder.resolve("snapshots");
+        var marker = folder.resolve(PENDING_RESTORE);
+        if (!Files.exists(marker)) return false;
+
+        var target = Long.parseLong(Files.readString(marker).trim());
+        var chain = chain(folder, target);
+        var banksFolder = dataFolder.resolve("banks");
+        var staging = dataFolder.resolve("banks.restoring");
+        deleteRecursively(staging);
+        Files.createDirectories(staging);
+
+        Set<UUID> restored;
+        try (var restorer = new Restorer(StorageEngine.open(engine, staging))) {
+            for (var path : chain) restorer.apply(path);
+            restored = restorer.storage.banks();
+        }
+
+        var suffix = ".before-restore-" + System.currentTimeMillis();
+        if (Files.isDirectory(banksFolder)) {
+            try (var bankFolders = Files.list(banksFolder)) {
+                for (var bankFolder : bankFolders.toList()) {
+                    var ledger = bankFolder.resolve("ledger");
+                    if (!Files.isDirectory(ledger) || restored.stream().noneMatch(bankUUID -> bankUUID.toString().equals(bankFolder.getFileName().toString())))
+                        continue;
+
+                    var restoredLedger = Files.createDirectories(staging.resolve(bankFolder.getFileName()).resolve("ledger"));
+                    try (var segments = Files.list(ledger)) {
+                        for (var segment : segments.toList()) Files.copy(segment, restoredLedger.resolve(segment.getFileName()));
+                    }
+                }
+            }
+            Files.move(banksFolder, dataFolder.resolve("banks" + suffix));
+        }
+        Files.move(staging, banksFolder);
+
+        var journal = dataFolder.resolve("journal");
+        if (Files.isDirectory(journal)) Files.move(journal, dataFolder.resolve("journal" + suffix));
+        Files.deleteIfExists(dataFolder.resolve("iban.index"));
+        Files.deleteIfExists(dataFolder.resolve("leaderboards.dat"));
+        Files.delete(marker);
+
+        logger.info(String.format("Restored snapshot %d from %d snapshot files; the previous data was moved to banks%s", target, chain.size(), suffix));
+        return true;
+    }
+
+    private static List<Path> chain(Path folder, long target) throws IOException {
+        var chain = new ArrayDeque<Path>();
+        for (long id = target; id > 0; id--) {
+            var path = path(folder, id);
+            if (!Files.exists(path)) throw new IOException(String.format("Snapshot %d is missing, so snapshot %d cannot be restored", id, target));
+            chain.addFirst(path);
+            if (header(path).full()) return List.copyOf(chain);
+        }
+        throw new IOException(String.format("No full snapshot precedes snapshot %d", target));
+    }
+
+    private static List<Long> ids(Path folder) throws IOException {
+        try (var files = Files.list(folder)) {
+            return files.map(path -> SNAPSHOT_PATTERN.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static Path path(Path folder, long id) {
+        return folder.resolve(String.format("%010d.snapshot.gz", id));
+    }
+
+    private static DataInputStream open(Path path) throws IOException {
+        return new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path), BUFFER_SIZE)));
+    }
+
+    private static Header header(Path path) throws IOException {
+        try (var in = open(path)) {
+            return readHeader(in, path);
+        }
+    }
+
+    private static Header readHeader(DataInputStream in, Path path) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not a Minty snapshot: " + path);
+        if (in.readInt() != VERSION) throw new IOException("Unsupported snapshot version: " + path);
+        return new Header(in.readLong(), in.readBoolean(), in.readLong(), Instant.ofEpochMilli(in.readLong()));
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) return;
+        try (var files = Files.walk(path)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+        }
+    }
+
+    private static final class Restorer implements Closeable {
+        private final StorageEngine storage;
+        private final Map<UUID, RecordStore> customers = new HashMap<>();
+        private final Map<UUID, RecordStore> loans = new HashMap<>();
+        private final Map<RecordStore, Map<UUID, byte[]>> pending = new HashMap<>();
+        private int pendingCount;
+
+        private Restorer(StorageEngine storage) {
+            this.storage = storage;
+        }
+
+        void apply(Path path) throws IOException {
+            try (var in = open(path)) {
+                readHeader(in, path);
+                while (true) {
+                    var kind = in.readByte();
+                    if (kind == KIND_END) break;
+
+                    var bankUUID = new UUID(in.readLong(), in.readLong());
+                    var key = new UUID(in.readLong(), in.readLong());
+                    var payload = new byte[in.readInt()];
+                    in.readFully(payload);
+
+                    switch (kind) {
+                        case KIND_BANK -> storage.writeBank(bankUUID, ByteBuffer.wrap(payload));
+                        case KIND_CUSTOMER -> put(store(customers, bankUUID, RecordKind.CUSTOMERS), key, payload);
+                        case KIND_LOAN -> put(store(loans, bankUUID, RecordKind.LOANS), key, payload);
+                        case KIND_DELETE_CUSTOMER -> {
+                            flush();
+                            store(customers, bankUUID, RecordKind.CUSTOMERS).remove(key);
+                        }
+                        case KIND_DELETE_LOAN -> {
+                            flush();
+                            store(loans, bankUUID, RecordKind.LOANS).remove(key);
+                        }
+                        case KIND_DELETE_BANK -> {
+                            flush();
+                            customers.remove(bankUUID);
+                            loans.remove(bankUUID);
+                            storage.deleteBank(bankUUID);
+                        }
+                        default -> throw new IOException(String.format("Unknown entry kind %d in snapshot %s", kind, path));
+                    }
+                }
+            }
+            flush();
+        }
+
+        private RecordStore store(Map<UUID, RecordStore> stores, UUID bankUUID, RecordKind kind) throws IOException {
+            var store = stores.get(bankUUID);
+            if (store == null) {
+                store = storage.records(bankUUID, kind);
+                stores.put(bankUUID, store);
+            }
+            return store;
+        }
+
+        private void put(RecordStore store, UUID key, byte[] payload) throws IOException {
+            pending.computeIfAbsent(store, k -> new HashMap<>()).put(key, payload);
+            if (++pendingCount >= RESTORE_BATCH) flush();
+        }
+
+        private void flush() throws IOException {
+            for (var batch : pending.entrySet()) batch.getKey().putAll(batch.getValue());
+            pending.clear();
+            pendingCount = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                for (var store : customers.values()) store.maintain();
+                for (var store : loans.values()) store.maintain();
+            } finally {
+                storage.close();
+            }
+        }
+    }
+
+    record Deletion(byte kind, UUID bankUUID, UUID key) {
+    }
+
+    private record Encoded(byte kind, UUID bankUUID, UUID key, byte[] payload) {
+    }
+
+    private record Saved(Set<UUID> banks, Map<UUID, Set<UUID>> customers, Map<UUID, Set<UUID>> loans) {
+    }
+
+    private record Cut(long version, List<Bank> banks, List<Encoded> encoded, List<BankCustomer> customers, List<Deletion> deletions, Saved saved) {
+    }
+
+    private record Drained(List<Deletion> deletions, Saved saved) {
+    }
+
+    private record Account(UUID bankUUID, UUID playerUUID) {
+    }
+
+    private record Preserved(BankCustomer customer, long version) {
+    }
+
+    public record Header(long id, boolean full, long cutVersion, Instant created) {
+    }
+
+    public record Info(long id, boolean full, int records, long bytes, Duration elapsed) {
+    }
+}
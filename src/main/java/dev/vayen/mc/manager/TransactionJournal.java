@@ -0,0 +1,276 @@
+/*
+ * Minty (Minty.main): TransactionJournal.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager;
+
+import dev.vayen.mc.economy.bank.BankCustomer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+public class TransactionJournal implements AutoCloseable {
+    // sequence (high bit set for a deletion), bank uuid, player uuid, balance, crc
+    private static final long DELETION = Long.MIN_VALUE;
+    private static final int RECORD_SIZE = Long.BYTES * 6 + Integer.BYTES;
+    private static final int MAX_BATCH = 4096;
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile("\\d{20}\\.journal");
+
+    private final Path folder;
+    private final Logger logger;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ReentrantLock segmentLock = new ReentrantLock();
+    private final ReentrantReadWriteLock touchedLock = new ReentrantReadWriteLock();
+    private final Thread writer;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * MAX_BATCH);
+    private volatile ConcurrentHashMap<Key, BankCustomer> touched = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+    private volatile @Nullable IOException failure;
+    private long failedSegment;
+    private long sequence;
+    private long segment;
+    private FileChannel channel;
+
+    public TransactionJournal(Path folder, Logger logger) throws IOException {
+        this.folder = folder;
+        this.logger = logger;
+        Files.createDirectories(folder);
+
+        var segments = listSegments();
+        segment = segments.isEmpty() ? 0 : segmentNumber(segments.getLast()) + 1;
+        channel = openSegment(segment);
+
+        writer = Thread.ofPlatform().name("Minty-Journal").daemon().start(this::writeLoop);
+    }
+
+    public CompletableFuture<Void> append(@NotNull BankCustomer customer) {
+        touch(customer);
+        return enqueue(new Pending(customer.getBankUUID(), customer.getPlayerUUID(), customer.getBalance(), false, new CompletableFuture<>()));
+    }
+
+    public CompletableFuture<Void> appendDeletion(UUID bankUUID, UUID playerUUID) {
+        touchedLock.readLock().lock();
+        try {
+            touched.remove(new Key(bankUUID, playerUUID));
+        } finally {
+            touchedLock.readLock().unlock();
+        }
+        return enqueue(new Pending(bankUUID, playerUUID, 0, true, new CompletableFuture<>()));
+    }
+
+    private CompletableFuture<Void> enqueue(Pending pending) {
+        if (!running) {
+            pending.future.completeExceptionally(new IllegalStateException("Journal is closed"));
+            return pending.future;
+        }
+        queue.add(pending);
+        return pending.future;
+    }
+
+    public void ensureWritable() throws IOException {
+        var failed = failure;
+        if (failed != null) throw new IOException("The transaction journal failed to write; balance changes resume after the next checkpoint", failed);
+    }
+
+    public void touch(@NotNull BankCustomer customer) {
+        touchedLock.readLock().lock();
+        try {
+            touched.put(new Key(customer.getBankUUID(), customer.getPlayerUUID()), customer);
+        } finally {
+            touchedLock.readLock().unlock();
+        }
+    }
+
+    public Collection<BankCustomer> rotate() throws IOException {
+        segmentLock.lock();
+        try {
+            ConcurrentHashMap<Key, BankCustomer> sealed;
+            touchedLock.writeLock().lock();
+            try {
+                sealed = touched;
+                touched = new ConcurrentHashMap<>();
+            } finally {
+                touchedLock.writeLock().unlock();
+            }
+            channel.force(false);
+            channel.close();
+            channel = openSegment(++segment);
+            return sealed.values();
+        } finally {
+            segmentLock.unlock();
+        }
+    }
+
+    public void discardSealed() throws IOException {
+        long current;
+        segmentLock.lock();
+        try {
+            current = segment;
+        } finally {
+            segmentLock.unlock();
+        }
+
+        for (var path : listSegments()) {
+            if (segmentNumber(path) < current) Files.deleteIfExists(path);
+        }
+
+        segmentLock.lock();
+        try {
+            if (failure != null && failedSegment < current) failure = null;
+        } finally {
+            segmentLock.unlock();
+        }
+    }
+
+    public void replay(Consumer<Record> consumer) throws IOException {
+        long current;
+        segmentLock.lock();
+        try {
+            current = segment;
+        } finally {
+            segmentLock.unlock();
+        }
+
+        var record = ByteBuffer.allocate(RECORD_SIZE);
+        var crc = new CRC32C();
+        for (var path : listSegments()) {
+            if (segmentNumber(path) >= current) continue;
+
+            try (var in = FileChannel.open(path, StandardOpenOption.READ)) {
+                while (true) {
+                    record.clear();
+                    int read = 0;
+                    while (record.hasRemaining() && (read = in.read(record)) != -1) {
+                    }
+                    if (read == -1 || record.hasRemaining()) break;
+
+                    crc.reset();
+                    crc.update(record.array(), 0, RECORD_SIZE - Integer.BYTES);
+                    record.flip();
+                    var sequence = record.getLong();
+                    var entry = new Record(sequence & ~DELETION, (sequence & DELETION) != 0, new UUID(record.getLong(), record.getLong()), new UUID(record.getLong(), record.getLong()), record.getLong());
+                    if (record.getInt() != (int) crc.getValue()) {
+                        logger.warning(String.format("Corrupt journal record in %s, skipping the rest of the segment", path.getFileName()));
+                        break;
+                    }
+                    consumer.accept(entry);
+                }
+            }
+        }
+    }
+
+    private void writeLoop() {
+        var batch = new ArrayList<Pending>(MAX_BATCH);
+        var crc = new CRC32C();
+        var record = new byte[RECORD_SIZE - Integer.BYTES];
+        var recordBuffer = ByteBuffer.wrap(record);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+            } catch (InterruptedException e) {
+                if (!running) continue;
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            segmentLock.lock();
+            try {
+                buffer.clear();
+                for (var pending : batch) {
+                    recordBuffer.clear();
+                    recordBuffer.putLong(pending.deleted ? sequence++ | DELETION : sequence++)
+                            .putLong(pending.bankUUID.getMostSignificantBits()).putLong(pending.bankUUID.getLeastSignificantBits())
+                            .putLong(pending.playerUUID.getMostSignificantBits()).putLong(pending.playerUUID.getLeastSignificantBits())
+                            .putLong(pending.balance);
+                    crc.reset();
+                    crc.update(record);
+                    buffer.put(record).putInt((int) crc.getValue());
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) channel.write(buffer);
+                channel.force(false);
+                batch.forEach(pending -> pending.future.complete(null));
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to write transaction journal batch, refusing balance changes until the next checkpoint", e);
+                failure = e;
+                failedSegment = segment;
+                batch.forEach(pending -> pending.future.completeExceptionally(e));
+            } finally {
+                segmentLock.unlock();
+                batch.clear();
+            }
+        }
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(folder.resolve(String.format("%020d.journal", number)), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (var files = Files.list(folder)) {
+            return files.filter(path -> SEGMENT_PATTERN.matcher(path.getFileName().toString()).matches()).sorted().toList();
+        }
+    }
+
+    private long segmentNumber(Path path) {
+        var name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.indexOf('.')));
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        segmentLock.lock();
+        try {
+            channel.close();
+        } finally {
+            segmentLock.unlock();
+        }
+    }
+
+    public record Record(long sequence, boolean deleted, UUID bankUUID, UUID playerUUID, long balance) {
+    }
+
+    private record Key(UUID bankUUID, UUID playerUUID) {
+    }
+
+    private record Pending(UUID bankUUID, UUID playerUUID, long balance, boolean deleted, CompletableFuture<Void> future) {
+    }
+}
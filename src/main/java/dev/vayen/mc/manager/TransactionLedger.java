@@ -0,0 +1,169 @@
+/*
+ * Minty (Minty.main): TransactionLedger.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager;
+
+import dev.vayen.mc.economy.TransactionType;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class TransactionLedger implements Closeable {
+    public static final Settings DEFAULT_SETTINGS = new Settings(16_384, Duration.ofDays(90));
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile("\\d{20}\\.ledger");
+    private static final long NO_COUNTERPARTY = -1;
+
+    private final Path folder;
+    private final Settings settings;
+    private final List<LedgerSegment> segments = new ArrayList<>();
+    private LedgerSegment active;
+
+    private TransactionLedger(Path folder, Settings settings) {
+        this.folder = folder;
+        this.settings = settings;
+    }
+
+    public static TransactionLedger open(Path folder, Settings settings) throws IOException {
+        Files.createDirectories(folder);
+        var ledger = new TransactionLedger(folder, settings);
+
+        List<Path> paths;
+        try (var files = Files.list(folder)) {
+            paths = files.filter(path -> SEGMENT_PATTERN.matcher(path.getFileName().toString()).matches()).sorted().toList();
+        }
+        try {
+            for (int i = 0; i < paths.size(); i++) {
+                var path = paths.get(i);
+                var name = path.getFileName().toString();
+                ledger.segments.add(LedgerSegment.open(path, Long.parseLong(name.substring(0, name.indexOf('.'))), i == paths.size() - 1));
+            }
+            if (ledger.segments.isEmpty() || ledger.segments.getLast().isFull()) ledger.rollover();
+            ledger.active = ledger.segments.getLast();
+        } catch (IOException | RuntimeException e) {
+            ledger.close();
+            throw e;
+        }
+        return ledger;
+    }
+
+    public synchronized void append(long time, TransactionType type, long account, @Nullable Long counterparty, long delta, long balance) throws IOException {
+        if (active == null) throw new IOException("Ledger " + folder + " is closed");
+        if (active.isFull()) rollover();
+        active.append(Math.max(time, active.isEmpty() ? 0 : active.lastTime()), account, counterparty == null ? NO_COUNTERPARTY : counterparty, delta, balance, type.ordinal());
+    }
+
+    public synchronized List<Entry> latest(long account, int limit) {
+        var entries = new ArrayList<Entry>(Math.min(limit, 64));
+        for (int s = segments.size() - 1; s >= 0 && entries.size() < limit; s--) {
+            var segment = segments.get(s);
+            var rows = segment.rows(account);
+            for (int i = rows.length - 1; i >= 0 && entries.size() < limit; i--) entries.add(read(segment, rows[i]));
+        }
+        return entries;
+    }
+
+    public synchronized List<Entry> range(long account, Instant from, Instant to) {
+        var fromMillis = from.toEpochMilli();
+        var toMillis = to.toEpochMilli();
+        var entries = new ArrayList<Entry>();
+
+        for (int s = firstSegmentEndingAfter(fromMillis); s < segments.size(); s++) {
+            var segment = segments.get(s);
+            if (segment.isEmpty()) continue;
+            if (segment.firstTime() > toMillis) break;
+
+            var rows = segment.rows(account);
+            int low = 0, high = rows.length;
+            while (low < high) {
+                var mid = (low + high) >>> 1;
+                if (segment.time(rows[mid]) < fromMillis) low = mid + 1;
+                else high = mid;
+            }
+            for (int i = low; i < rows.length && segment.time(rows[i]) <= toMillis; i++) entries.add(read(segment, rows[i]));
+        }
+        return entries;
+    }
+
+    private int firstSegmentEndingAfter(long millis) {
+        int low = 0, high = segments.size();
+        while (low < high) {
+            var mid = (low + high) >>> 1;
+            var segment = segments.get(mid);
+            if (!segment.isEmpty() && segment.lastTime() < millis) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    public synchronized int expire() throws IOException {
+        var cutoff = System.currentTimeMillis() - settings.retention().toMillis();
+        int removed = 0;
+        while (segments.size() > 1 && segments.getFirst().lastTime() < cutoff) {
+            segments.removeFirst().delete();
+            removed++;
+        }
+        return removed;
+    }
+
+    public synchronized void force() {
+        if (active != null) active.force();
+    }
+
+    private void rollover() throws IOException {
+        var number = segments.isEmpty() ? 0 : segments.getLast().number + 1;
+        if (!segments.isEmpty()) segments.getLast().seal();
+        var segment = LedgerSegment.create(folder.resolve(String.format("%020d.ledger", number)), number, settings.segmentRecords());
+        segments.add(segment);
+        active = segment;
+        expire();
+    }
+
+    private static Entry read(LedgerSegment segment, int row) {
+        var counterparty = segment.counterparty(row);
+        return new Entry(Instant.ofEpochMilli(segment.time(row)), TransactionType.of(segment.type(row)), IbanIndex.iban(segment.account(row)),
+                counterparty == NO_COUNTERPARTY ? null : IbanIndex.iban(counterparty), segment.delta(row), segment.balance(row));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (var segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        segments.clear();
+        active = null;
+        if (failure != null) throw failure;
+    }
+
+    public record Entry(Instant time, TransactionType type, String iban, @Nullable String counterparty, long delta, long balanceAfter) {
+    }
+
+    public record Settings(int segmentRecords, Duration retention) {
+    }
+}
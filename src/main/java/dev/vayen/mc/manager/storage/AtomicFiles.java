@@ -0,0 +1,75 @@
+/*
+ * Minty (Minty.main): AtomicFiles.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Function;
+
+import static java.nio.file.StandardOpenOption.*;
+
+public final class AtomicFiles {
+    private static final int MAX_POOLED_BUFFER = 1 << 20;
+    private static final ThreadLocal<ByteBuffer> READ_BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocate(4096));
+
+    private AtomicFiles() {
+    }
+
+    public static int write(Path path, ByteBuffer data) throws IOException {
+        var length = data.remaining();
+        var temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (var channel = openTemp(temp)) {
+            while (data.hasRemaining()) channel.write(data);
+            channel.force(false);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return length;
+    }
+
+    private static FileChannel openTemp(Path temp) throws IOException {
+        try {
+            return FileChannel.open(temp, CREATE, TRUNCATE_EXISTING, WRITE);
+        } catch (NoSuchFileException e) {
+            Files.createDirectories(temp.getParent());
+            return FileChannel.open(temp, CREATE, TRUNCATE_EXISTING, WRITE);
+        }
+    }
+
+    public static <T> T read(Path path, Function<ByteBuffer, T> reader) throws IOException {
+        try (var channel = FileChannel.open(path, READ)) {
+            var size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("File too large to read at once: " + path);
+
+            var buffer = READ_BUFFERS.get();
+            if (buffer.capacity() < size) {
+                buffer = ByteBuffer.allocate((int) Math.max(size, Math.min(Integer.MAX_VALUE, buffer.capacity() * 2L)));
+                if (buffer.capacity() <= MAX_POOLED_BUFFER) READ_BUFFERS.set(buffer);
+            }
+            buffer.clear().limit((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) == -1) throw new IOException("Unexpected end of file: " + path);
+            }
+            return reader.apply(buffer.flip());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Minty (Minty.main): EmptyRecordStore.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+final class EmptyRecordStore implements RecordStore {
+    static final EmptyRecordStore INSTANCE = new EmptyRecordStore();
+
+    private EmptyRecordStore() {
+    }
+
+    @Override
+    public Set<UUID> keys() {
+        return Set.of();
+    }
+
+    @Override
+    public int size() {
+        return 0;
+    }
+
+    @Override
+    public boolean contains(UUID key) {
+        return false;
+    }
+
+    @Override
+    public <T> @Nullable T read(UUID key, Function<ByteBuffer, T> reader) {
+        return null;
+    }
+
+    @Override
+    public void forEach(BiConsumer<UUID, ByteBuffer> consumer) {
+    }
+
+    @Override
+    public @Nullable UUID scan(@Nullable UUID after, int limit, BiConsumer<UUID, ByteBuffer> consumer) {
+        return null;
+    }
+
+    @Override
+    public void putAll(@NotNull Map<UUID, byte[]> records) throws IOException {
+        if (!records.isEmpty()) throw new IOException("Cannot write through a peek");
+    }
+
+    @Override
+    public void remove(UUID key) throws IOException {
+        throw new IOException("Cannot write through a peek");
+    }
+
+    @Override
+    public void maintain() {
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Minty (Minty.main): FileStorageEngine.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager.storage;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+// Layout: one folder per bank holding general.bson, customers.pack and loans.pack.
+public class FileStorageEngine implements StorageEngine {
+    public static final String NAME = "file";
+    private static final Pattern UUID_PATTERN = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[1-5][0-9a-fA-F]{3}-[89abAB][0-9a-fA-F]{3}-[0-9a-fA-F]{12}");
+
+    private final Path root;
+    private final Map<UUID, BankFiles> openFiles = new ConcurrentHashMap<>();
+
+    private FileStorageEngine(Path root) {
+        this.root = root;
+    }
+
+    public static FileStorageEngine open(Path root) throws IOException {
+        Files.createDirectories(root);
+        return new FileStorageEngine(root);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    private Path generalPath(UUID bankUUID) {
+        return root.resolve(bankUUID.toString()).resolve("general.bson");
+    }
+
+    private Path packPath(UUID bankUUID, RecordKind kind) {
+        return root.resolve(bankUUID.toString()).resolve(kind == RecordKind.CUSTOMERS ? "customers.pack" : "loans.pack");
+    }
+
+    @Override
+    public Set<UUID> banks() throws IOException {
+        try (var files = Files.list(root)) {
+            var banks = new HashSet<UUID>();
+            files.filter(Files::isDirectory)
+                    .filter(path -> UUID_PATTERN.matcher(path.getFileName().toString()).matches())
+                    .filter(path -> Files.exists(path.resolve("general.bson")))
+                    .forEach(path -> banks.add(UUID.fromString(path.getFileName().toString())));
+            return banks;
+        }
+    }
+
+    @Override
+    public <T> @Nullable T readBank(UUID bankUUID, Function<ByteBuffer, T> reader) throws IOException {
+        try {
+            return AtomicFiles.read(generalPath(bankUUID), reader);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void writeBank(UUID bankUUID, ByteBuffer data) throws IOException {
+        AtomicFiles.write(generalPath(bankUUID), data);
+    }
+
+    @Override
+    public void deleteBank(UUID bankUUID) throws IOException {
+        closeBank(bankUUID);
+        Files.deleteIfExists(generalPath(bankUUID));
+        Files.deleteIfExists(packPath(bankUUID, RecordKind.CUSTOMERS));
+        Files.deleteIfExists(packPath(bankUUID, RecordKind.LOANS));
+    }
+
+    @Override
+    public RecordStore records(UUID bankUUID, RecordKind kind) throws IOException {
+        return files(bankUUID).get(kind);
+    }
+
+    @Override
+    public <R> R peek(UUID bankUUID, RecordKind kind, StoreFunction<R> action) throws IOException {
+        var open = openFiles.get(bankUUID);
+        if (open != null) return action.apply(open.get(kind));
+
+        synchronized (openFiles) {
+            open = openFiles.get(bankUUID);
+            if (open == null) {
+                var path = packPath(bankUUID, kind);
+                if (!Files.exists(path)) return action.apply(EmptyRecordStore.INSTANCE);
+                try (var file = PackedRecordFile.openReadOnly(path)) {
+                    return action.apply(file);
+                }
+            }
+        }
+        return action.apply(open.get(kind));
+    }
+
+    private BankFiles files(UUID bankUUID) throws IOException {
+        var files = openFiles.get(bankUUID);
+        if (files != null) return files;
+
+        synchronized (openFiles) {
+            files = openFiles.get(bankUUID);
+            if (files == null) {
+                files = BankFiles.open(packPath(bankUUID, RecordKind.CUSTOMERS), packPath(bankUUID, RecordKind.LOANS));
+                openFiles.put(bankUUID, files);
+            }
+            return files;
+        }
+    }
+
+    @Override
+    public void closeBank(UUID bankUUID) throws IOException {
+        var files = openFiles.remove(bankUUID);
+        if (files != null) files.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (var bankUUID : List.copyOf(openFiles.keySet())) {
+            try {
+                closeBank(bankUUID);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    private record BankFiles(PackedRecordFile customers, PackedRecordFile loans) implements Closeable {
+        static BankFiles open(Path customersPath, Path loansPath) throws IOException {
+            var customers = PackedRecordFile.open(customersPath);
+            try {
+                return new BankFiles(customers, PackedRecordFile.open(loansPath));
+            } catch (IOException e) {
+                customers.close();
+                throw e;
+            }
+        }
+
+        PackedRecordFile get(RecordKind kind) {
+            return kind == RecordKind.CUSTOMERS ? customers : loans;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                customers.close();
+            } finally {
+                loans.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Minty (Minty.main): MVStoreStorageEngine.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager.storage;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+public class MVStoreStorageEngine implements StorageEngine {
+    public static final String NAME = "mvstore";
+
+    private final MVStore store;
+    private final MVMap<UUID, byte[]> banks;
+    private final Map<String, MapRecordStore> stores = new ConcurrentHashMap<>();
+
+    private MVStoreStorageEngine(MVStore store) {
+        this.store = store;
+        this.banks = store.openMap("banks");
+    }
+
+    public static MVStoreStorageEngine open(Path root) throws IOException {
+        Files.createDirectories(root);
+        try {
+            return new MVStoreStorageEngine(new MVStore.Builder().fileName(root.resolve("minty.mv").toString()).autoCommitDisabled().compress().open());
+        } catch (RuntimeException e) {
+            throw new IOException("Failed to open the MVStore in " + root, e);
+        }
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    private static String mapName(UUID bankUUID, RecordKind kind) {
+        return (kind == RecordKind.CUSTOMERS ? "customers:" : "loans:") + bankUUID;
+    }
+
+    @Override
+    public Set<UUID> banks() {
+        return Set.copyOf(banks.keySet());
+    }
+
+    @Override
+    public <T> @Nullable T readBank(UUID bankUUID, Function<ByteBuffer, T> reader) {
+        var data = banks.get(bankUUID);
+        return data == null ? null : reader.apply(ByteBuffer.wrap(data));
+    }
+
+    @Override
+    public void writeBank(UUID bankUUID, ByteBuffer data) {
+        var bytes = new byte[data.remaining()];
+        data.get(bytes);
+        banks.put(bankUUID, bytes);
+        commit(store);
+    }
+
+    @Override
+    public void deleteBank(UUID bankUUID) {
+        banks.remove(bankUUID);
+        for (var kind : RecordKind.values()) {
+            var name = mapName(bankUUID, kind);
+            stores.remove(name);
+            if (store.hasMap(name)) store.removeMap(name);
+        }
+        commit(store);
+    }
+
+    @Override
+    public RecordStore records(UUID bankUUID, RecordKind kind) {
+        return stores.computeIfAbsent(mapName(bankUUID, kind), name -> new MapRecordStore(store, store.openMap(name)));
+    }
+
+    @Override
+    public <R> R peek(UUID bankUUID, RecordKind kind, StoreFunction<R> action) throws IOException {
+        return action.apply(store.hasMap(mapName(bankUUID, kind)) ? records(bankUUID, kind) : EmptyRecordStore.INSTANCE);
+    }
+
+    @Override
+    public void closeBank(UUID bankUUID) {
+        for (var kind : RecordKind.values()) stores.remove(mapName(bankUUID, kind));
+    }
+
+    @Override
+    public void close() {
+        stores.clear();
+        store.close();
+    }
+
+    // commit only writes the new version to the file; the sync is what makes it survive a power loss.
+    private static void commit(MVStore store) {
+        store.commit();
+        store.sync();
+    }
+
+    private record MapRecordStore(MVStore store, MVMap<UUID, byte[]> map) implements RecordStore {
+        @Override
+        public Set<UUID> keys() {
+            return Collections.unmodifiableSet(map.keySet());
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean contains(UUID key) {
+            return map.containsKey(key);
+        }
+
+        @Override
+        public <T> @Nullable T read(UUID key, Function<ByteBuffer, T> reader) {
+            var data = map.get(key);
+            return data == null ? null : reader.apply(ByteBuffer.wrap(data));
+        }
+
+        @Override
+        public void forEach(BiConsumer<UUID, ByteBuffer> consumer) {
+            for (var cursor = map.cursor(null); cursor.hasNext(); ) {
+                var key = cursor.next();
+                consumer.accept(key, ByteBuffer.wrap(cursor.getValue()));
+            }
+        }
+
+        @Override
+        public @Nullable UUID scan(@Nullable UUID after, int limit, BiConsumer<UUID, ByteBuffer> consumer) {
+            var from = after == null ? map.firstKey() : map.higherKey(after);
+            if (from == null) return null;
+
+            UUID last = null;
+            int visited = 0;
+            for (var cursor = map.cursor(from); visited < limit && cursor.hasNext(); visited++) {
+                last = cursor.next();
+                consumer.accept(last, ByteBuffer.wrap(cursor.getValue()));
+            }
+            return last;
+        }
+
+        @Override
+        public void putAll(@NotNull Map<UUID, byte[]> records) {
+            if (records.isEmpty()) return;
+            map.putAll(records);
+            commit(store);
+        }
+
+        @Override
+        public void remove(UUID key) {
+            if (map.remove(key) != null) commit(store);
+        }
+
+        @Override
+        public void maintain() {
+        }
+    }
+}
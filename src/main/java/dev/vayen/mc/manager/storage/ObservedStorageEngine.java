@@ -0,0 +1,195 @@
+/*
+ * Minty (Minty.main): ObservedStorageEngine.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+public class ObservedStorageEngine implements StorageEngine {
+    private final StorageEngine delegate;
+    private final ReentrantReadWriteLock pin = new ReentrantReadWriteLock();
+    private volatile @Nullable Listener listener;
+
+    public ObservedStorageEngine(StorageEngine delegate) {
+        this.delegate = delegate;
+    }
+
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    public Pin pin() {
+        pin.writeLock().lock();
+        return new Pin();
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+
+    @Override
+    public Set<UUID> banks() throws IOException {
+        return delegate.banks();
+    }
+
+    @Override
+    public <T> @Nullable T readBank(UUID bankUUID, Function<ByteBuffer, T> reader) throws IOException {
+        return delegate.readBank(bankUUID, reader);
+    }
+
+    @Override
+    public void writeBank(UUID bankUUID, ByteBuffer data) throws IOException {
+        pin.readLock().lock();
+        try {
+            delegate.writeBank(bankUUID, data);
+            var current = listener;
+            if (current != null) current.bankWritten(bankUUID);
+        } finally {
+            pin.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteBank(UUID bankUUID) throws IOException {
+        pin.readLock().lock();
+        try {
+            delegate.deleteBank(bankUUID);
+        } finally {
+            pin.readLock().unlock();
+        }
+    }
+
+    @Override
+    public RecordStore records(UUID bankUUID, RecordKind kind) throws IOException {
+        return new ObservedRecordStore(bankUUID, kind, delegate.records(bankUUID, kind));
+    }
+
+    @Override
+    public <R> R peek(UUID bankUUID, RecordKind kind, StoreFunction<R> action) throws IOException {
+        return delegate.peek(bankUUID, kind, store -> action.apply(new ObservedRecordStore(bankUUID, kind, store)));
+    }
+
+    @Override
+    public void closeBank(UUID bankUUID) throws IOException {
+        delegate.closeBank(bankUUID);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    public interface Listener {
+        void bankWritten(UUID bankUUID);
+
+        void recordsWritten(UUID bankUUID, RecordKind kind, Set<UUID> keys);
+    }
+
+    public final class Pin implements AutoCloseable {
+        private boolean released;
+
+        private Pin() {
+        }
+
+        @Override
+        public void close() {
+            if (released) return;
+            released = true;
+            pin.writeLock().unlock();
+        }
+    }
+
+    private final class ObservedRecordStore implements RecordStore {
+        private final UUID bankUUID;
+        private final RecordKind kind;
+        private final RecordStore delegate;
+
+        private ObservedRecordStore(UUID bankUUID, RecordKind kind, RecordStore delegate) {
+            this.bankUUID = bankUUID;
+            this.kind = kind;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Set<UUID> keys() {
+            return delegate.keys();
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public boolean contains(UUID key) {
+            return delegate.contains(key);
+        }
+
+        @Override
+        public <T> @Nullable T read(UUID key, Function<ByteBuffer, T> reader) throws IOException {
+            return delegate.read(key, reader);
+        }
+
+        @Override
+        public void forEach(BiConsumer<UUID, ByteBuffer> consumer) throws IOException {
+            delegate.forEach(consumer);
+        }
+
+        @Override
+        public @Nullable UUID scan(@Nullable UUID after, int limit, BiConsumer<UUID, ByteBuffer> consumer) throws IOException {
+            return delegate.scan(after, limit, consumer);
+        }
+
+        @Override
+        public void putAll(@NotNull Map<UUID, byte[]> records) throws IOException {
+            pin.readLock().lock();
+            try {
+                delegate.putAll(records);
+                var current = listener;
+                if (current != null && !records.isEmpty()) current.recordsWritten(bankUUID, kind, records.keySet());
+            } finally {
+                pin.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void remove(UUID key) throws IOException {
+            pin.readLock().lock();
+            try {
+                delegate.remove(key);
+            } finally {
+                pin.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void maintain() throws IOException {
+            delegate.maintain();
+        }
+    }
+}
@@ -0,0 +1,445 @@
+/*
+ * Minty (Minty.main): PackedRecordFile.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardOpenOption.*;
+
+// Layout: header | records (length, kind, key, crc, payload)... | offset index | records appended after the last compaction...
+public class PackedRecordFile implements Closeable, RecordStore {
+    private static final int MAGIC = 0x4D4E5450;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + Byte.BYTES + Long.BYTES * 2 + Integer.BYTES;
+    private static final int INDEX_ENTRY_SIZE = Long.BYTES * 3 + Integer.BYTES;
+    private static final byte KIND_DELETE = 0;
+    private static final byte KIND_PUT = 1;
+    private static final long COMPACTION_MIN_DEAD_BYTES = 1 << 20;
+    private static final int COPY_BUFFER_SIZE = 1 << 20;
+    private static final int MAX_POOLED_BUFFER = 1 << 16;
+    private static final long MAP_WINDOW_SIZE = 64L << 20;
+    private static final ThreadLocal<ByteBuffer> READ_BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocate(512));
+
+    private final Path path;
+    private final boolean readOnly;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Entry> index = new ConcurrentHashMap<>();
+    private FileChannel channel;
+    private long end;
+    private long liveBytes;
+    private long deadBytes;
+
+    private PackedRecordFile(Path path, boolean readOnly) {
+        this.path = path;
+        this.readOnly = readOnly;
+    }
+
+    public static PackedRecordFile open(Path path) throws IOException {
+        Files.createDirectories(path.getParent());
+        return open(new PackedRecordFile(path, false), FileChannel.open(path, CREATE, READ, WRITE));
+    }
+
+    public static PackedRecordFile openReadOnly(Path path) throws IOException {
+        return open(new PackedRecordFile(path, true), FileChannel.open(path, READ));
+    }
+
+    private static PackedRecordFile open(PackedRecordFile file, FileChannel channel) throws IOException {
+        file.channel = channel;
+        try {
+            file.load();
+        } catch (IOException e) {
+            file.channel.close();
+            throw e;
+        }
+        return file;
+    }
+
+    private void load() throws IOException {
+        var size = channel.size();
+        if (size < HEADER_SIZE) {
+            end = HEADER_SIZE;
+            if (readOnly) return;
+            channel.truncate(0);
+            writeHeader(channel, 0, 0);
+            return;
+        }
+
+        var header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC) throw new IOException("Not a Minty pack file: " + path);
+        if (header.getInt() != VERSION) throw new IOException("Unsupported pack file version: " + path);
+        var indexOffset = header.getLong();
+        var indexCount = header.getInt();
+
+        long position = HEADER_SIZE;
+        if (indexOffset > 0) {
+            var indexBuffer = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, (long) indexCount * INDEX_ENTRY_SIZE);
+            for (int i = 0; i < indexCount; i++) {
+                var key = new UUID(indexBuffer.getLong(), indexBuffer.getLong());
+                var entry = new Entry(indexBuffer.getLong(), indexBuffer.getInt());
+                index.put(key, entry);
+                liveBytes += entry.recordSize();
+            }
+            position = indexOffset + (long) indexCount * INDEX_ENTRY_SIZE;
+            deadBytes = indexOffset - HEADER_SIZE - liveBytes;
+        }
+
+        end = scanTail(position, size);
+        if (end < size && !readOnly) channel.truncate(end);
+    }
+
+    private long scanTail(long position, long size) throws IOException {
+        if (position >= size) return position;
+
+        var tail = new MappedWindow(size);
+        var crc = new CRC32C();
+        while (size - position >= RECORD_HEADER_SIZE) {
+            var header = tail.slice(position, RECORD_HEADER_SIZE);
+            var length = header.getInt();
+            var kind = header.get();
+            var key = new UUID(header.getLong(), header.getLong());
+            var checksum = header.getInt();
+            if (length < 0 || size - position - RECORD_HEADER_SIZE < length) break;
+
+            crc.reset();
+            crc.update(tail.slice(position + RECORD_HEADER_SIZE, length));
+            if ((int) crc.getValue() != checksum) break;
+
+            var previous = kind == KIND_PUT ? index.put(key, new Entry(position, length)) : index.remove(key);
+            if (previous != null) {
+                liveBytes -= previous.recordSize();
+                deadBytes += previous.recordSize();
+            }
+            if (kind == KIND_PUT) liveBytes += RECORD_HEADER_SIZE + length;
+            else deadBytes += RECORD_HEADER_SIZE;
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    @Override
+    public Set<UUID> keys() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public boolean contains(UUID key) {
+        return index.containsKey(key);
+    }
+
+    public @Nullable ByteBuffer read(UUID key) throws IOException {
+        lock.readLock().lock();
+        try {
+            var entry = index.get(key);
+            if (entry == null) return null;
+
+            var buffer = ByteBuffer.allocate(entry.length);
+            readFully(buffer, entry.offset + RECORD_HEADER_SIZE);
+            return buffer.flip();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public <T> @Nullable T read(UUID key, Function<ByteBuffer, T> reader) throws IOException {
+        lock.readLock().lock();
+        try {
+            var entry = index.get(key);
+            if (entry == null) return null;
+
+            var buffer = READ_BUFFERS.get();
+            if (buffer.capacity() < entry.length) {
+                buffer = ByteBuffer.allocate(Math.max(entry.length, buffer.capacity() * 2));
+                if (buffer.capacity() <= MAX_POOLED_BUFFER) READ_BUFFERS.set(buffer);
+            }
+            buffer.clear().limit(entry.length);
+            readFully(buffer, entry.offset + RECORD_HEADER_SIZE);
+            return reader.apply(buffer.flip());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEach(BiConsumer<UUID, ByteBuffer> consumer) throws IOException {
+        lock.readLock().lock();
+        try {
+            if (index.isEmpty()) return;
+
+            var mapped = new MappedWindow(end);
+            var entries = new ArrayList<>(index.entrySet());
+            entries.sort(Comparator.comparingLong(e -> e.getValue().offset));
+            for (var entry : entries) {
+                var value = entry.getValue();
+                consumer.accept(entry.getKey(), mapped.slice(value.offset + RECORD_HEADER_SIZE, value.length));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public @Nullable UUID scan(@Nullable UUID after, int limit, BiConsumer<UUID, ByteBuffer> consumer) throws IOException {
+        lock.readLock().lock();
+        try {
+            var page = new TreeMap<UUID, Entry>();
+            for (var entry : index.entrySet()) {
+                var key = entry.getKey();
+                if (after != null && key.compareTo(after) <= 0) continue;
+                if (page.size() < limit) {
+                    page.put(key, entry.getValue());
+                } else if (key.compareTo(page.lastKey()) < 0) {
+                    page.pollLastEntry();
+                    page.put(key, entry.getValue());
+                }
+            }
+            if (page.isEmpty()) return null;
+
+            var buffer = READ_BUFFERS.get();
+            for (var entry : page.entrySet()) {
+                var value = entry.getValue();
+                if (buffer.capacity() < value.length) {
+                    buffer = ByteBuffer.allocate(Math.max(value.length, buffer.capacity() * 2));
+                    if (buffer.capacity() <= MAX_POOLED_BUFFER) READ_BUFFERS.set(buffer);
+                }
+                buffer.clear().limit(value.length);
+                readFully(buffer, value.offset + RECORD_HEADER_SIZE);
+                consumer.accept(entry.getKey(), buffer.flip());
+            }
+            return page.lastKey();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(UUID key, byte[] payload) throws IOException {
+        putAll(Map.of(key, payload));
+    }
+
+    @Override
+    public void putAll(@NotNull Map<UUID, byte[]> records) throws IOException {
+        if (records.isEmpty()) return;
+
+        int total = 0;
+        for (var payload : records.values()) total += RECORD_HEADER_SIZE + payload.length;
+
+        var buffer = ByteBuffer.allocate(total);
+        var offsets = new HashMap<UUID, Entry>(records.size());
+        var crc = new CRC32C();
+
+        ensureWritable();
+        lock.writeLock().lock();
+        try {
+            for (var record : records.entrySet()) {
+                var payload = record.getValue();
+                crc.reset();
+                crc.update(payload);
+                offsets.put(record.getKey(), new Entry(end + buffer.position(), payload.length));
+                putRecordHeader(buffer, KIND_PUT, record.getKey(), payload.length, (int) crc.getValue());
+                buffer.put(payload);
+            }
+            writeFully(buffer.flip(), end);
+            channel.force(false);
+            end += total;
+
+            for (var offset : offsets.entrySet()) {
+                var previous = index.put(offset.getKey(), offset.getValue());
+                if (previous != null) {
+                    liveBytes -= previous.recordSize();
+                    deadBytes += previous.recordSize();
+                }
+                liveBytes += offset.getValue().recordSize();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(UUID key) throws IOException {
+        ensureWritable();
+        lock.writeLock().lock();
+        try {
+            var previous = index.get(key);
+            if (previous == null) return;
+
+            var buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+            putRecordHeader(buffer, KIND_DELETE, key, 0, (int) new CRC32C().getValue());
+            writeFully(buffer.flip(), end);
+            channel.force(false);
+            end += RECORD_HEADER_SIZE;
+
+            index.remove(key);
+            liveBytes -= previous.recordSize();
+            deadBytes += previous.recordSize() + RECORD_HEADER_SIZE;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void maintain() throws IOException {
+        if (needsCompaction()) compact();
+    }
+
+    public boolean needsCompaction() {
+        return !readOnly && deadBytes > COMPACTION_MIN_DEAD_BYTES && deadBytes > liveBytes;
+    }
+
+    public void compact() throws IOException {
+        ensureWritable();
+        lock.writeLock().lock();
+        try {
+            var temp = path.resolveSibling(path.getFileName() + ".compact");
+            var entries = new ArrayList<>(index.entrySet());
+            entries.sort(Comparator.comparingLong(e -> e.getValue().offset));
+            var compacted = new HashMap<UUID, Entry>(entries.size());
+
+            long position = HEADER_SIZE;
+            try (var out = FileChannel.open(temp, CREATE, TRUNCATE_EXISTING, WRITE)) {
+                var source = new MappedWindow(end);
+                var buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+                out.position(HEADER_SIZE);
+
+                for (var entry : entries) {
+                    var value = entry.getValue();
+                    var record = source.slice(value.offset, value.recordSize());
+                    if (buffer.remaining() < record.remaining()) flush(out, buffer);
+                    if (buffer.remaining() < record.remaining()) {
+                        while (record.hasRemaining()) out.write(record);
+                    } else {
+                        buffer.put(record);
+                    }
+                    compacted.put(entry.getKey(), new Entry(position, value.length));
+                    position += value.recordSize();
+                }
+
+                for (var entry : compacted.entrySet()) {
+                    if (buffer.remaining() < INDEX_ENTRY_SIZE) flush(out, buffer);
+                    buffer.putLong(entry.getKey().getMostSignificantBits()).putLong(entry.getKey().getLeastSignificantBits())
+                            .putLong(entry.getValue().offset).putInt(entry.getValue().length);
+                }
+                flush(out, buffer);
+
+                writeHeader(out, position, compacted.size());
+                out.force(true);
+            }
+
+            channel.close();
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            channel = FileChannel.open(path, READ, WRITE);
+
+            index.clear();
+            index.putAll(compacted);
+            end = position + (long) compacted.size() * INDEX_ENTRY_SIZE;
+            liveBytes = position - HEADER_SIZE;
+            deadBytes = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void flush(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) out.write(buffer);
+        buffer.clear();
+    }
+
+    private static void putRecordHeader(ByteBuffer buffer, byte kind, UUID key, int length, int checksum) {
+        buffer.putInt(length).put(kind).putLong(key.getMostSignificantBits()).putLong(key.getLeastSignificantBits()).putInt(checksum);
+    }
+
+    private static void writeHeader(FileChannel out, long indexOffset, int indexCount) throws IOException {
+        var header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(indexOffset).putInt(indexCount);
+        header.position(HEADER_SIZE).flip();
+        while (header.hasRemaining()) out.write(header, header.position());
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) == -1)
+                throw new IOException("Unexpected end of pack file: " + path);
+        }
+    }
+
+    private void ensureWritable() throws IOException {
+        if (readOnly) throw new IOException("Pack file is open read-only: " + path);
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer, position + buffer.position());
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private final class MappedWindow {
+        private final long limit;
+        private @Nullable MappedByteBuffer mapped;
+        private long start;
+
+        private MappedWindow(long limit) {
+            this.limit = limit;
+        }
+
+        private ByteBuffer slice(long offset, int length) throws IOException {
+            if (mapped == null || offset < start || offset + length > start + mapped.capacity()) {
+                start = offset;
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(limit - start, Math.max(MAP_WINDOW_SIZE, length)));
+            }
+            return mapped.slice((int) (offset - start), length);
+        }
+    }
+
+    private record Entry(long offset, int length) {
+        int recordSize() {
+            return RECORD_HEADER_SIZE + length;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Minty (Minty.main): StorageEngine.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager.storage;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+public interface StorageEngine extends Closeable {
+    static StorageEngine open(String name, Path root) throws IOException {
+        return switch (name.toLowerCase()) {
+            case FileStorageEngine.NAME -> FileStorageEngine.open(root);
+            case MVStoreStorageEngine.NAME -> MVStoreStorageEngine.open(root);
+            default -> throw new IllegalArgumentException("Unknown storage engine: " + name);
+        };
+    }
+
+    String name();
+
+    Set<UUID> banks() throws IOException;
+
+    <T> @Nullable T readBank(UUID bankUUID, Function<ByteBuffer, T> reader) throws IOException;
+
+    void writeBank(UUID bankUUID, ByteBuffer data) throws IOException;
+
+    void deleteBank(UUID bankUUID) throws IOException;
+
+    RecordStore records(UUID bankUUID, RecordKind kind) throws IOException;
+
+    <R> R peek(UUID bankUUID, RecordKind kind, StoreFunction<R> action) throws IOException;
+
+    void closeBank(UUID bankUUID) throws IOException;
+
+    @FunctionalInterface
+    interface StoreFunction<R> {
+        R apply(RecordStore store) throws IOException;
+    }
+}
@@ -23,38 +23,108 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public abstract class AbstractMenu implements Menu {
-    private final HashMap<Integer, Consumer<Player>> actions = new HashMap<>();
+    private static final Consumer<Player> NO_ACTION = p -> {
+    };
+
     private final Inventory inventory;
+    private final Consumer<Player>[] actions;
+    private final LiveSlot<?>[] liveSlots;
+    private boolean populated;
 
+    @SuppressWarnings("unchecked")
     public AbstractMenu(Component title, Rows rows) {
         this.inventory = Bukkit.createInventory(this, rows.getSize(), title);
+        this.actions = new Consumer[rows.getSize()];
+        this.liveSlots = new LiveSlot<?>[rows.getSize()];
+        Arrays.fill(actions, NO_ACTION);
     }
 
     @Override
     public void click(Player player, int slot) {
-        actions.getOrDefault(slot, p -> {
-        }).accept(player);
+        if (slot < 0 || slot >= actions.length) return;
+        actions[slot].accept(player);
     }
 
     @Override
     public void setItem(int slot, ItemStack item) {
-        setItem(slot, item, p -> {
-        });
+        setItem(slot, item, null);
     }
 
     @Override
-    public void setItem(int slot, ItemStack item, Consumer<Player> action) {
+    public void setItem(int slot, ItemStack item, @Nullable Consumer<Player> action) {
+        liveSlots[slot] = null;
         inventory.setItem(slot, item);
-        actions.put(slot, action);
+        actions[slot] = action == null ? NO_ACTION : action;
+    }
+
+    public <S> void setLiveItem(int slot, Supplier<S> state, Function<S, ItemStack> renderer, @Nullable Consumer<Player> action) {
+        var live = new LiveSlot<>(state, renderer);
+        setItem(slot, live.renderIfChanged(), action);
+        liveSlots[slot] = live;
+    }
+
+    public void clearItem(int slot) {
+        setItem(slot, null, null);
+    }
+
+    @Override
+    public void refresh() {
+        for (int slot = 0; slot < liveSlots.length; slot++) {
+            var live = liveSlots[slot];
+            if (live == null) continue;
+
+            var item = live.renderIfChanged();
+            if (item != null) inventory.setItem(slot, item);
+        }
+    }
+
+    @Override
+    public void open(Player player) {
+        if (populated) {
+            refresh();
+        } else {
+            onSetItems();
+            populated = true;
+        }
+        player.openInventory(inventory);
+    }
+
+    public void invalidate() {
+        populated = false;
     }
 
     @Override
     public @NotNull Inventory getInventory() {
         return inventory;
     }
+
+    private static final class LiveSlot<S> {
+        private final Supplier<S> state;
+        private final Function<S, ItemStack> renderer;
+        private boolean rendered;
+        private S last;
+
+        private LiveSlot(Supplier<S> state, Function<S, ItemStack> renderer) {
+            this.state = state;
+            this.renderer = renderer;
+        }
+
+        private @Nullable ItemStack renderIfChanged() {
+            var current = state.get();
+            if (rendered && Objects.equals(current, last)) return null;
+
+            rendered = true;
+            last = current;
+            return renderer.apply(current);
+        }
+    }
 }
@@ -0,0 +1,73 @@
+/*
+ * Minty (Minty.main): BankCustomersMenu.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.menu;
+
+import dev.vayen.mc.economy.bank.Bank;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+public class BankCustomersMenu extends PagedMenu<UUID> {
+    private static final ItemTemplate CUSTOMER = ItemTemplate.of(Material.PLAYER_HEAD,
+            "<white>{customer.name}",
+            "<gray>IBAN: <white>{customer.iban}",
+            "<gray>Balance: <white>{customer.balance}");
+
+    private final Bank bank;
+
+    public BankCustomersMenu(Bank bank) {
+        super(Component.text(bank.getName(), NamedTextColor.GREEN).append(Component.text(" » Customers", NamedTextColor.DARK_GRAY)), Rows.FIVE);
+        this.bank = bank;
+    }
+
+    @Override
+    protected List<UUID> keys() {
+        return new ArrayList<>(bank.getCustomers().keys());
+    }
+
+    @Override
+    protected void beforePage(List<UUID> pageKeys) {
+        bank.getCustomers().prefetch(pageKeys);
+    }
+
+    @Override
+    protected void renderEntry(int slot, UUID playerUUID) {
+        var customer = bank.getCustomers().get(playerUUID);
+        if (customer == null) {
+            clearItem(slot);
+            return;
+        }
+
+        var iban = customer.getIban();
+        setLiveItem(slot, () -> customer.isLive() ? customer.getBalance() : null, balance -> CUSTOMER.render(Map.<String, Supplier<?>>of(
+                "customer.name", () -> {
+                    var name = Bukkit.getOfflinePlayer(playerUUID).getName();
+                    return name == null ? playerUUID : name;
+                },
+                "customer.iban", () -> iban,
+                "customer.balance", () -> balance == null ? "-" : balance
+        )), null);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Minty (Minty.main): BankLoansMenu.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.menu;
+
+import dev.vayen.mc.economy.bank.Bank;
+import dev.vayen.mc.economy.bank.BankLoan;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+public class BankLoansMenu extends PagedMenu<UUID> {
+    private static final ItemTemplate LOAN = ItemTemplate.of(Material.PAPER,
+            "<white>Loan of {loan.customer}",
+            "<gray>Amount: <white>{loan.amount}",
+            "<gray>Paid: <white>{loan.paid}",
+            "<gray>Interest: <white>{loan.interest}%",
+            "<gray>Duration: <white>{loan.duration} days");
+
+    private final Bank bank;
+
+    public BankLoansMenu(Bank bank) {
+        super(Component.text(bank.getName(), NamedTextColor.GREEN).append(Component.text(" » Loans", NamedTextColor.DARK_GRAY)), Rows.FIVE);
+        this.bank = bank;
+    }
+
+    @Override
+    protected List<UUID> keys() {
+        return new ArrayList<>(bank.getLoans().keys());
+    }
+
+    @Override
+    protected void beforePage(List<UUID> pageKeys) {
+        bank.getLoans().prefetch(pageKeys);
+    }
+
+    @Override
+    protected void renderEntry(int slot, UUID loanUUID) {
+        var loan = bank.getLoans().get(loanUUID);
+        if (loan == null) {
+            clearItem(slot);
+            return;
+        }
+
+        setLiveItem(slot, () -> new State(loan.getAmount(), loan.getAmountPaid()), state -> render(loan, state), null);
+    }
+
+    private static ItemStack render(BankLoan loan, State state) {
+        return LOAN.render(Map.<String, Supplier<?>>of(
+                "loan.customer", () -> {
+                    var name = Bukkit.getOfflinePlayer(loan.getCustomerUUID()).getName();
+                    return name == null ? loan.getCustomerUUID() : name;
+                },
+                "loan.amount", state::amount,
+                "loan.paid", state::amountPaid,
+                "loan.interest", loan::getInterestRate,
+                "loan.duration", loan::getDurationInDays
+        ));
+    }
+
+    private record State(long amount, long amountPaid) {
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Minty (Minty.main): ItemTemplate.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.menu;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.vayen.mc.MessageTemplate;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public final class ItemTemplate {
+    private static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
+    private static final Cache<Key, ItemTemplate> CACHE = Caffeine.newBuilder().maximumSize(512).build();
+
+    private final ItemStack base;
+    private final MessageTemplate name;
+    private final List<MessageTemplate> lore;
+    private final boolean isStatic;
+
+    private ItemTemplate(Key key) {
+        this.name = MessageTemplate.compile(key.name);
+        this.lore = key.lore.stream().map(MessageTemplate::compile).toList();
+        this.isStatic = name.isStatic() && lore.stream().allMatch(MessageTemplate::isStatic);
+        this.base = ItemStack.of(key.material);
+        if (isStatic) apply(base, Map.of());
+    }
+
+    public static ItemTemplate of(Material material, String name, String... lore) {
+        return CACHE.get(new Key(material, name, List.of(lore)), ItemTemplate::new);
+    }
+
+    public ItemStack create() {
+        return render(Map.of());
+    }
+
+    public ItemStack render(Map<String, ? extends Supplier<?>> variables) {
+        var item = base.clone();
+        if (!isStatic) apply(item, variables);
+        return item;
+    }
+
+    private void apply(ItemStack item, Map<String, ? extends Supplier<?>> variables) {
+        item.editMeta(meta -> {
+            meta.displayName(deserialize(name.render(variables)));
+            if (!lore.isEmpty()) meta.lore(lore.stream().map(line -> deserialize(line.render(variables))).toList());
+        });
+    }
+
+    private static Component deserialize(String text) {
+        return MINI_MESSAGE.deserialize(text).decorationIfAbsent(TextDecoration.ITALIC, TextDecoration.State.FALSE);
+    }
+
+    private record Key(Material material, String name, List<String> lore) {
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Minty (Minty.main): LeaderboardMenu.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.menu;
+
+import dev.vayen.mc.economy.Leaderboard;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public class LeaderboardMenu extends PagedMenu<LeaderboardMenu.Ranked> {
+    private static final ItemTemplate ENTRY = ItemTemplate.of(Material.PLAYER_HEAD,
+            "<gold>#{rank} <white>{customer.name}",
+            "<gray>IBAN: <white>{customer.iban}",
+            "<gray>Balance: <white>{customer.balance}");
+
+    private final Supplier<List<Leaderboard.Entry>> ranking;
+
+    public LeaderboardMenu(String scope, Supplier<List<Leaderboard.Entry>> ranking) {
+        super(Component.text(scope, NamedTextColor.GREEN).append(Component.text(" » Richest accounts", NamedTextColor.DARK_GRAY)), Rows.FIVE);
+        this.ranking = ranking;
+    }
+
+    @Override
+    protected List<Ranked> keys() {
+        var entries = ranking.get();
+        var ranked = new ArrayList<Ranked>(entries.size());
+        for (int i = 0; i < entries.size(); i++) ranked.add(new Ranked(i + 1, entries.get(i)));
+        return ranked;
+    }
+
+    @Override
+    protected void renderEntry(int slot, Ranked ranked) {
+        var entry = ranked.entry();
+        setItem(slot, ENTRY.render(Map.<String, Supplier<?>>of(
+                "rank", ranked::rank,
+                "customer.name", () -> {
+                    var name = Bukkit.getOfflinePlayer(entry.playerUUID()).getName();
+                    return name == null ? entry.playerUUID() : name;
+                },
+                "customer.iban", entry::iban,
+                "customer.balance", entry::balance
+        )));
+    }
+
+    public record Ranked(int rank, Leaderboard.Entry entry) {
+    }
+}
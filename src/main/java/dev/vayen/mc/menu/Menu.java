@@ -32,6 +32,9 @@ public interface Menu extends InventoryHolder {
 
     void onSetItems();
 
+    default void refresh() {
+    }
+
     default void open(Player player) {
         onSetItems();
         player.openInventory(getInventory());
@@ -21,19 +21,41 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
 import org.bukkit.inventory.Inventory;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
 public class MenuListener implements Listener {
+    private final Set<Menu> openMenus = Collections.newSetFromMap(new IdentityHashMap<>());
 
     @EventHandler
     public void onClick(InventoryClickEvent event) {
         final Inventory inventory = event.getClickedInventory();
         if (inventory == null) return;
 
-        if (!(inventory instanceof Menu menu)) return;
+        if (!(inventory.getHolder(false) instanceof Menu menu)) return;
         if (!(event.getWhoClicked() instanceof Player player)) return;
 
         event.setCancelled(true);
         menu.click(player, event.getSlot());
     }
+
+    @EventHandler
+    public void onOpen(InventoryOpenEvent event) {
+        if (event.getInventory().getHolder(false) instanceof Menu menu) openMenus.add(menu);
+    }
+
+    @EventHandler
+    public void onClose(InventoryCloseEvent event) {
+        var inventory = event.getInventory();
+        if (inventory.getHolder(false) instanceof Menu menu && inventory.getViewers().size() <= 1) openMenus.remove(menu);
+    }
+
+    public void refreshOpenMenus() {
+        for (var menu : openMenus) menu.refresh();
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Minty (Minty.main): PagedMenu.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.menu;
+
+import dev.vayen.mc.Minty;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public abstract class PagedMenu<K> extends AbstractMenu {
+    private static final ItemTemplate PREVIOUS = ItemTemplate.of(Material.ARROW, "<gray>Previous page");
+    private static final ItemTemplate NEXT = ItemTemplate.of(Material.ARROW, "<gray>Next page");
+    private static final ItemTemplate PAGE = ItemTemplate.of(Material.PAPER, "<gray>Page <white>{page}<gray>/<white>{pages}", "<dark_gray>{entries} entries");
+    private static final ItemTemplate FILLER = ItemTemplate.of(Material.GRAY_STAINED_GLASS_PANE, " ");
+
+    private final int pageSize;
+    private List<K> keys = List.of();
+    private int page;
+    private int renders;
+
+    protected PagedMenu(Component title, Rows rows) {
+        super(title, rows);
+        if (rows == Rows.ONE) throw new IllegalArgumentException("A paged menu needs at least two rows");
+        this.pageSize = rows.getSize() - 9;
+    }
+
+    protected abstract List<K> keys();
+
+    protected abstract void renderEntry(int slot, K key);
+
+    protected void beforePage(List<K> pageKeys) {
+    }
+
+    @Override
+    public void onSetItems() {
+        keys = keys();
+        page = Math.min(page, pages() - 1);
+        renderPage();
+    }
+
+    public void show(int page) {
+        this.page = Math.clamp(page, 0, pages() - 1);
+        renderPage();
+    }
+
+    public int pages() {
+        return Math.max(1, (keys.size() + pageSize - 1) / pageSize);
+    }
+
+    private void renderPage() {
+        var from = page * pageSize;
+        var pageKeys = List.copyOf(keys.subList(from, Math.min(from + pageSize, keys.size())));
+        var render = ++renders;
+        renderNavigation();
+
+        var plugin = Minty.getInstance();
+        Bukkit.getAsyncScheduler().runNow(plugin, task -> {
+            try {
+                beforePage(pageKeys);
+            } finally {
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (render == renders) renderEntries(pageKeys);
+                });
+            }
+        });
+    }
+
+    private void renderEntries(List<K> pageKeys) {
+        for (int slot = 0; slot < pageSize; slot++) {
+            if (slot < pageKeys.size()) renderEntry(slot, pageKeys.get(slot));
+            else clearItem(slot);
+        }
+    }
+
+    private void renderNavigation() {
+        var navigation = pageSize;
+        for (int slot = navigation; slot < navigation + 9; slot++) setItem(slot, FILLER.create());
+        if (page > 0) setItem(navigation, PREVIOUS.create(), player -> show(page - 1));
+        if (page < pages() - 1) setItem(navigation + 8, NEXT.create(), player -> show(page + 1));
+        setItem(navigation + 4, PAGE.render(Map.<String, Supplier<?>>of(
+                "page", () -> page + 1,
+                "pages", this::pages,
+                "entries", keys::size
+        )));
+    }
+}
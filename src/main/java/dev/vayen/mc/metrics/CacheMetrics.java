@@ -0,0 +1,58 @@
+/*
+ * Minty (Minty.main): CacheMetrics.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.Getter;
+
+// Reads Caffeine's own counters, so the cache must be built with recordStats().
+public class CacheMetrics implements CacheMetricsMXBean {
+    @Getter
+    private final String name;
+    private final Cache<?, ?> cache;
+
+    public CacheMetrics(String name, Cache<?, ?> cache) {
+        this.name = name;
+        this.cache = cache;
+    }
+
+    @Override
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    @Override
+    public double getHitRate() {
+        return cache.stats().hitRate();
+    }
+
+    @Override
+    public long getEstimatedSize() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Minty (Minty.main): Counter.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.metrics;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class Counter implements CounterMXBean {
+    @Getter
+    private final String name;
+    private final LongAdder value = new LongAdder();
+
+    public Counter(String name) {
+        this.name = name;
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    @Override
+    public long getValue() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Minty (Minty.main): LatencyHistogram.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.metrics;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyHistogram implements LatencyHistogramMXBean {
+    private static final int BUCKETS = 64;
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    @Getter
+    private final String name;
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+        for (int i = 0; i < BUCKETS; i++) buckets[i] = new LongAdder();
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void stop(long start) {
+        record(System.nanoTime() - start);
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets[BUCKETS - 1 - Long.numberOfLeadingZeros(nanos | 1)].increment();
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        var samples = count.sum();
+        return samples == 0 ? 0 : total.sum() / (double) samples / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return percentile(0.50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return percentile(0.99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return max.get() / NANOS_PER_MILLI;
+    }
+
+    private long percentile(double quantile) {
+        var samples = count.sum();
+        if (samples == 0) return 0;
+
+        var target = (long) Math.ceil(quantile * samples);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+            if (seen >= target) return Math.min(i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1, max.get());
+        }
+        return max.get();
+    }
+}
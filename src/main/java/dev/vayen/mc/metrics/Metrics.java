@@ -0,0 +1,105 @@
+/*
+ * Minty (Minty.main): Metrics.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+public final class Metrics {
+    private static final String DOMAIN = "dev.vayen.mc";
+
+    public static final LatencyHistogram ECONOMY_PAY = new LatencyHistogram("economy.pay");
+    public static final LatencyHistogram ECONOMY_DEPOSIT = new LatencyHistogram("economy.deposit");
+    public static final LatencyHistogram ECONOMY_WITHDRAW = new LatencyHistogram("economy.withdraw");
+    public static final LatencyHistogram ECONOMY_TRANSFER = new LatencyHistogram("economy.transfer");
+    public static final LatencyHistogram ECONOMY_BATCH = new LatencyHistogram("economy.batch");
+    public static final LatencyHistogram BANK_LOAD = new LatencyHistogram("bank.load");
+    public static final LatencyHistogram BANK_SAVE = new LatencyHistogram("bank.save");
+    public static final LatencyHistogram BANK_UNLOAD = new LatencyHistogram("bank.unload");
+    public static final LatencyHistogram AUTOSAVE = new LatencyHistogram("autosave");
+    public static final LatencyHistogram LOCK_WAIT = new LatencyHistogram("lock.wait");
+    public static final LatencyHistogram LOAN_SLICE = new LatencyHistogram("loan.slice");
+
+    public static final Counter AUTOSAVE_RECORDS = new Counter("autosave.records");
+    public static final Counter AUTOSAVE_BYTES = new Counter("autosave.bytes");
+
+    private static final List<LatencyHistogram> HISTOGRAMS = List.of(ECONOMY_PAY, ECONOMY_DEPOSIT, ECONOMY_WITHDRAW, ECONOMY_TRANSFER, ECONOMY_BATCH, BANK_LOAD, BANK_SAVE, BANK_UNLOAD, AUTOSAVE, LOCK_WAIT, LOAN_SLICE);
+    private static final List<Counter> COUNTERS = List.of(AUTOSAVE_RECORDS, AUTOSAVE_BYTES);
+    private static final Map<String, CacheMetrics> CACHES = new ConcurrentHashMap<>();
+    private static final List<ObjectName> registered = new ArrayList<>();
+
+    private Metrics() {
+    }
+
+    public static void registerCache(String name, Cache<?, ?> cache) {
+        CACHES.put(name, new CacheMetrics(name, cache));
+    }
+
+    public static List<LatencyHistogram> histograms() {
+        return HISTOGRAMS;
+    }
+
+    public static List<Counter> counters() {
+        return COUNTERS;
+    }
+
+    public static List<CacheMetrics> caches() {
+        return List.copyOf(CACHES.values());
+    }
+
+    public static synchronized void registerJmx(Logger logger) {
+        var server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (var histogram : HISTOGRAMS) register(server, name("Latency", histogram.getName()), histogram);
+            for (var counter : COUNTERS) register(server, name("Counter", counter.getName()), counter);
+            for (var cache : CACHES.values()) register(server, name("Cache", cache.getName()), cache);
+        } catch (JMException e) {
+            logger.warning("Failed to register Minty metrics with JMX: " + e.getMessage());
+        }
+    }
+
+    private static ObjectName name(String type, String name) throws JMException {
+        return new ObjectName(DOMAIN + ":type=" + type + ",name=" + name);
+    }
+
+    private static void register(MBeanServer server, ObjectName name, Object bean) throws JMException {
+        if (server.isRegistered(name)) server.unregisterMBean(name);
+        server.registerMBean(bean, name);
+        registered.add(name);
+    }
+
+    public static synchronized void unregisterJmx() {
+        var server = ManagementFactory.getPlatformMBeanServer();
+        for (var name : registered) {
+            try {
+                if (server.isRegistered(name)) server.unregisterMBean(name);
+            } catch (JMException ignored) {
+            }
+        }
+        registered.clear();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Minty (Minty.test): LeaderboardTest.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.economy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardTest {
+    private static final UUID BANK = new UUID(42, 1);
+
+    private static Leaderboard.Entry entry(int account, long balance) {
+        return new Leaderboard.Entry(BANK, new UUID(0, account), String.format("MN%02d", account), balance);
+    }
+
+    @Test
+    void keepsTwiceTheServedSize() {
+        var board = new Leaderboard(2);
+        for (int i = 1; i <= 4; i++) board.update(entry(i, i * 100));
+        assertFalse(board.isTruncated());
+
+        board.update(entry(5, 50));
+        assertTrue(board.isTruncated());
+        assertEquals(List.of(entry(4, 400), entry(3, 300)), board.top(2));
+        assertEquals(4, board.kept().size());
+    }
+
+    @Test
+    void truncatedBoardDropsAccountsFallingBelowItsTail() {
+        var board = new Leaderboard(2);
+        for (int i = 1; i <= 5; i++) board.update(entry(i, i * 100));
+        board.update(entry(2, 10));
+        assertEquals(List.of(entry(5, 500), entry(4, 400), entry(3, 300)), board.kept());
+        assertFalse(board.needsRebuild());
+
+        board.update(entry(3, 20));
+        board.update(entry(4, 30));
+        assertEquals(List.of(entry(5, 500)), board.kept());
+        assertTrue(board.needsRebuild());
+    }
+
+    @Test
+    void truncatedBoardStillRanksAccountsAboveItsTail() {
+        var board = new Leaderboard(2);
+        for (int i = 1; i <= 5; i++) board.update(entry(i, i * 100));
+        board.update(entry(2, 10));
+
+        board.update(entry(6, 350));
+        assertEquals(List.of(entry(5, 500), entry(4, 400), entry(6, 350), entry(3, 300)), board.kept());
+    }
+
+    @Test
+    void resetMakesTheBoardCompleteAgain() {
+        var board = new Leaderboard(2);
+        for (int i = 1; i <= 5; i++) board.update(entry(i, i * 100));
+        board.reset(List.of(entry(1, 100)), false);
+        assertFalse(board.isTruncated());
+
+        board.update(entry(2, 50));
+        assertEquals(List.of(entry(1, 100), entry(2, 50)), board.top(2));
+    }
+}
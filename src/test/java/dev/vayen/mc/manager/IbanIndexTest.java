@@ -0,0 +1,84 @@
+/*
+ * Minty (Minty.test): IbanIndexTest.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IbanIndexTest {
+    private static final UUID BANK = new UUID(42, 1);
+
+    @TempDir
+    Path root;
+    IbanIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        index = IbanIndex.open(root.resolve("iban.index"));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    void allocateGivesTheDerivedIbanWhenItIsFree() throws IOException {
+        var player = UUID.randomUUID();
+        var key = index.allocate(BANK, player);
+        assertEquals(IbanIndex.key(BANK, player), key);
+        assertEquals(new IbanIndex.Location(BANK, player), index.get(key));
+        assertEquals(key, index.allocate(BANK, player));
+    }
+
+    @Test
+    void allocateProbesPastIbansHeldByOtherAccounts() throws IOException {
+        // Same most significant bits, so both players derive the same IBAN
+        var first = new UUID(7, 1);
+        var second = new UUID(7, 2);
+        var third = new UUID(7, 3);
+        var keys = new long[]{index.allocate(BANK, first), index.allocate(BANK, second), index.allocate(BANK, third)};
+
+        assertEquals(IbanIndex.key(BANK, first), keys[0]);
+        assertEquals(3, Arrays.stream(keys).distinct().count());
+        assertEquals(new IbanIndex.Location(BANK, second), index.get(keys[1]));
+        assertEquals(new IbanIndex.Location(BANK, third), index.get(keys[2]));
+        assertThrows(IbanCollisionException.class, () -> index.put(keys[0], BANK, second));
+    }
+
+    @Test
+    void allocationsSurviveGrowingTheTable() throws IOException {
+        var players = new UUID[10_000];
+        var keys = new long[players.length];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new UUID(i % 100, i);
+            keys[i] = index.allocate(BANK, players[i]);
+        }
+        for (int i = 0; i < players.length; i++) assertEquals(new IbanIndex.Location(BANK, players[i]), index.get(keys[i]));
+        assertEquals(players.length, index.size());
+    }
+}
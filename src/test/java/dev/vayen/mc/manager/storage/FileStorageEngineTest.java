@@ -0,0 +1,41 @@
+/*
+ * Minty (Minty.test): FileStorageEngineTest.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class FileStorageEngineTest extends StorageEngineConformanceTest {
+    @Override
+    StorageEngine open(Path root) throws IOException {
+        return FileStorageEngine.open(root);
+    }
+
+    @Test
+    void peekCreatesNoFiles() throws IOException {
+        var bankUUID = UUID.randomUUID();
+        engine.peek(bankUUID, RecordKind.CUSTOMERS, RecordStore::size);
+        assertFalse(Files.exists(root.resolve(bankUUID.toString())));
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Minty (Minty.test): StorageEngineConformanceTest.java
+ * Copyright (C) 2025 mtctx
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the **GNU General Public License** as published
+ * by the Free Software Foundation, either **version 3** of the License, or
+ * (at your option) any later version.
+ *
+ * *This program is distributed WITHOUT ANY WARRANTY;** see the
+ * GNU General Public License for more details, which you should have
+ * received with this program.
+ *
+ * SPDX-FileCopyrightText: 2025 mtctx
+ * SPDX-License-Identifier: GPL-3.0-only
+ */
+
+package dev.vayen.mc.manager.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+abstract class StorageEngineConformanceTest {
+    @TempDir
+    Path root;
+    StorageEngine engine;
+
+    abstract StorageEngine open(Path root) throws IOException;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        engine = open(root);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (engine != null) engine.close();
+    }
+
+    private StorageEngine reopen() throws IOException {
+        engine.close();
+        engine = open(root);
+        return engine;
+    }
+
+    private static byte[] payload(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteBuffer buffer) {
+        var bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Map<UUID, String> contents(RecordStore store) throws IOException {
+        var contents = new HashMap<UUID, String>();
+        store.forEach((key, buffer) -> assertNull(contents.put(key, text(buffer)), "forEach visited " + key + " twice"));
+        return contents;
+    }
+
+    @Test
+    void bankDocumentsRoundTripAndReplace() throws IOException {
+        var bankUUID = UUID.randomUUID();
+        assertNull(engine.readBank(bankUUID, StorageEngineConformanceTest::text));
+
+        engine.writeBank(bankUUID, ByteBuffer.wrap(payload("first")));
+        engine.writeBank(bankUUID, ByteBuffer.wrap(payload("second")));
+        assertEquals("second", engine.readBank(bankUUID, StorageEngineConformanceTest::text));
+        assertEquals(Set.of(bankUUID), engine.banks());
+
+        assertEquals("second", reopen().readBank(bankUUID, StorageEngineConformanceTest::text));
+    }
+
+    @Test
+    void recordsRoundTripAndReplace() throws IOException {
+        var bankUUID = UUID.randomUUID();
+        var first = UUID.randomUUID();
+        var second = UUID.randomUUID();
+        var store = engine.records(bankUUID, RecordKind.CUSTOMERS);
+        store.putAll(Map.of());
+        assertEquals(0, store.size());
+
+        store.putAll(Map.of(first, payload("a"), second, payload("b")));
+        store.putAll(Map.of(first, payload("c")));
+        assertEquals(2, store.size());
+        assertEquals(Set.of(first, second), store.keys());
+        assertTrue(store.contains(first));
+        assertEquals("c", store.read(first, StorageEngineConformanceTest::text));
+        assertNull(store.read(UUID.randomUUID(), StorageEngineConformanceTest::text));
+        assertEquals(Map.of(first, "c", second, "b"), contents(store));
+    }
+
+    @Test
+    void kindsAndBanksAreSeparate() throws IOException {
+        var bankUUID = UUID.randomUUID();
+        var otherBank = UUID.randomUUID();
+        var key = UUID.randomUUID();
+        engine.records(bankUUID, RecordKind.CUSTOMERS).putAll(Map.of(key, payload("customer")));
+        engine.records(bankUUID, RecordKind.LOANS).putAll(Map.of(key, payload("loan")));
+
+        assertEquals("customer", engine.records(bankUUID, RecordKind.CUSTOMERS).read(key, StorageEngineConformanceTest::text));
+        assertEquals("loan", engine.records(bankUUID, RecordKind.LOANS).read(key, StorageEngineConformanceTest::text));
+        assertFalse(engine.records(otherBank, RecordKind.CUSTOMERS).contains(key));
+    }
+
+    @Test
+    void removeIsDurable() throws IOException {
+        var bankUUID = UUID.randomUUID();
+        var kept = UUID.randomUUID();
+        var removed = UUID.randomUUID();
+        var store = engine.records(bankUUID, RecordKind.LOANS);
+        store.putAll(Map.of(kept, payload("kept"), removed, payload("removed")));
+        store.remove(removed);
+        store.remove(UUID.randomUUID());
+        assertFalse(store.contains(removed));
+
+        var reopened = reopen().records(bankUUID, RecordKind.LOANS);
+        assertEquals(Map.of(kept, "kept"), contents(reopened));
+    }
+
+    @Test
+    void writesSurviveReopen() throws IOException {
+        var bankUUID = UUID.randomUUID();
+        var expected = new HashMap<UUID, String>();
+        var batch = new HashMap<UUID, byte[]>();
+        for (int i = 0; i < 1_000; i++) {
+            var key = UUID.randomUUID();
+            expected.put(key, "record " + i);
+            batch.put(key, payload("record " + i));
+        }
+        engine.writeBank(bankUUID, ByteBuffer.wrap(payload("bank")));
+        engine.records(bankUUID, RecordKind.CUSTOMERS).putAll(batch);
+        engine.closeBank(bankUUID);
+
+        reopen();
+        assertEquals(Set.of(bankUUID), engine.banks());
+        assertEquals(expected, contents(engine.records(bankUUID, RecordKind.CUSTOMERS)));
+    }
+
+    @Test
+    void scanPagesInKeyOrder() throws IOException {
+        var bankUUID = UUID.randomUUID();
+        var keys = new TreeSet<UUID>();
+        var batch = new HashMap<UUID, byte[]>();
+        for (int i = 0; i < 250; i++) {
+            var key = UUID.randomUUID();
+            keys.add(key);
+            batch.put(key, payload(key.toString()));
+        }
+        var store = engine.records(bankUUID, RecordKind.CUSTOMERS);
+        store.putAll(batch);
+
+        var visited = new ArrayList<UUID>();
+        UUID cursor = null;
+        do {
+            var page = new ArrayList<UUID>();
+            cursor = store.scan(cursor, 64, (key, buffer) -> {
+                assertEquals(key.toString(), text(buffer));
+                page.add(key);
+            });
+            assertTrue(page.size() <= 64);
+            if (cursor != null) assertEquals(page.getLast(), cursor);
+            visited.addAll(page);
+        } while (cursor != null);
+
+        assertEquals(List.copyOf(keys), visited);
+        assertNull(store.scan(keys.last(), 64, (key, buffer) -> fail("Nothing is left after the last key")));
+    }
+
+    @Test
+    void peekSeesStoredRecords() throws IOException {
+        var bankUUID = UUID.randomUUID();
+        var key = UUID.randomUUID();
+        engine.records(bankUUID, RecordKind.CUSTOMERS).putAll(Map.of(key, payload("peeked")));
+        engine.closeBank(bankUUID);
+
+        assertEquals("peeked", engine.peek(bankUUID, RecordKind.CUSTOMERS, store -> store.read(key, StorageEngineConformanceTest::text)));
+        assertEquals(1, (int) engine.peek(bankUUID, RecordKind.CUSTOMERS, RecordStore::size));
+    }
+
+    @Test
+    void peekAtMissingBankSeesNothing() throws IOException {
+        var bankUUID = UUID.randomUUID();
+        assertEquals(0, (int) engine.peek(bankUUID, RecordKind.CUSTOMERS, RecordStore::size));
+        assertFalse((boolean) engine.peek(bankUUID, RecordKind.LOANS, store -> store.contains(bankUUID)));
+        assertThrows(IOException.class, () -> engine.peek(bankUUID, RecordKind.CUSTOMERS, store -> {
+            store.putAll(Map.of(bankUUID, payload("written")));
+            return null;
+        }));
+
+        assertFalse(engine.banks().contains(bankUUID));
+        assertEquals(0, engine.records(bankUUID, RecordKind.CUSTOMERS).size());
+    }
+
+    @Test
+    void peekRunsAlongsideWrites() throws Exception {
+        var bankUUID = UUID.randomUUID();
+        var keys = new ArrayList<UUID>();
+        for (int i = 0; i < 200; i++) keys.add(UUID.randomUUID());
+
+        var writer = Executors.newSingleThreadExecutor();
+        try {
+            var writes = writer.submit(() -> {
+                for (var key : keys) engine.records(bankUUID, RecordKind.CUSTOMERS).putAll(Map.of(key, payload(key.toString())));
+                return null;
+            });
+            int seen = 0;
+            while (!writes.isDone()) {
+                int size = engine.peek(bankUUID, RecordKind.CUSTOMERS, RecordStore::size);
+                assertTrue(size >= seen, "A peek lost records");
+                seen = size;
+            }
+            writes.get();
+        } finally {
+            writer.shutdown();
+        }
+
+        var expected = new HashMap<UUID, String>();
+        for (var key : keys) expected.put(key, key.toString());
+        assertEquals(expected, contents(reopen().records(bankUUID, RecordKind.CUSTOMERS)));
+    }
+
+    @Test
+    void deleteBankRemovesEverything() throws IOException {
+        var bankUUID = UUID.randomUUID();
+        var key = UUID.randomUUID();
+        engine.writeBank(bankUUID, ByteBuffer.wrap(payload("bank")));
+        engine.records(bankUUID, RecordKind.CUSTOMERS).putAll(Map.of(key, payload("customer")));
+        engine.records(bankUUID, RecordKind.LOANS).putAll(Map.of(key, payload("loan")));
+
+        engine.deleteBank(bankUUID);
+        assertFalse(engine.banks().contains(bankUUID));
+        assertNull(engine.readBank(bankUUID, StorageEngineConformanceTest::text));
+        assertEquals(0, engine.records(bankUUID, RecordKind.CUSTOMERS).size());
+        assertEquals(0, engine.records(bankUUID, RecordKind.LOANS).size());
+    }
+
+    @Test
+    void maintainKeepsLiveRecords() throws IOException {
+        var bankUUID = UUID.randomUUID();
+        var keys = new ArrayList<UUID>();
+        for (int i = 0; i < 64; i++) keys.add(UUID.randomUUID());
+        var store = engine.records(bankUUID, RecordKind.CUSTOMERS);
+
+        var filler = new byte[4096];
+        for (int round = 0; round < 16; round++) {
+            var batch = new HashMap<UUID, byte[]>();
+            for (var key : keys) batch.put(key, round == 15 ? payload(key.toString()) : filler);
+            store.putAll(batch);
+        }
+        store.remove(keys.getFirst());
+        store.maintain();
+
+        var expected = new HashMap<UUID, String>();
+        for (var key : keys.subList(1, keys.size())) expected.put(key, key.toString());
+        assertEquals(expected, contents(store));
+        assertEquals(expected, contents(reopen().records(bankUUID, RecordKind.CUSTOMERS)));
+    }
+}